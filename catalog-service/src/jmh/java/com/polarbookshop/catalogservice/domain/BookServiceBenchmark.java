@@ -0,0 +1,117 @@
+package com.polarbookshop.catalogservice.domain;
+
+import com.polarbookshop.catalogservice.config.BookCacheProperties;
+import com.polarbookshop.catalogservice.config.ChangeFeedProperties;
+import com.polarbookshop.catalogservice.config.PagingProperties;
+import com.polarbookshop.catalogservice.config.SnapshotProperties;
+import com.polarbookshop.catalogservice.config.SuggestionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+/** Measures the service layer on its own, with the repository kept in memory. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookServiceBenchmark {
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    private BookService bookService;
+    private List<String> isbns;
+    private Book bookToEdit;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var repository = new InMemoryBookRepository();
+        var books = new ArrayList<Book>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            books.add(
+                    Book.of(
+                            String.valueOf(1_000_000_000L + i),
+                            "Northern Lights " + i,
+                            "Lyra Silvester",
+                            9.90,
+                            "Polarsophia"));
+        }
+        repository.upsertAll(books, Instant.now(), null);
+        var bookCache =
+                new BookCache(
+                        new BookCacheProperties(catalogSize, Duration.ofMinutes(10)),
+                        new SimpleMeterRegistry());
+        var suggestionIndex =
+                new BookSuggestionIndex(repository, new SuggestionProperties(10, 50, 10_000, 1000));
+        suggestionIndex.rebuild();
+        bookService =
+                new BookService(
+                        repository,
+                        bookCache,
+                        suggestionIndex,
+                        new BookSnapshot(
+                                repository,
+                                new SnapshotProperties(false, null, Duration.ofMinutes(5)),
+                                benchmarkDataSource(),
+                                new SimpleMeterRegistry()),
+                        Optional::empty,
+                        new PagingProperties(50, 500, 500),
+                        new ChangeFeedProperties(Duration.ofSeconds(2)));
+        isbns = books.stream().map(Book::isbn).toList();
+        bookToEdit = Book.of(isbns.get(0), "Polar Journey", "Iorek Polarson", 12.90, null);
+    }
+
+    private static DataSourceProperties benchmarkDataSource() {
+        var properties = new DataSourceProperties();
+        properties.setUrl("jdbc:benchmark:in-memory");
+        properties.setUsername("benchmark");
+        return properties;
+    }
+
+    @Benchmark
+    public Book viewBookDetails() {
+        return bookService.viewBookDetails(nextIsbn());
+    }
+
+    @Benchmark
+    public Book editBookDetails() {
+        return bookService.editBookDetails(bookToEdit.isbn(), bookToEdit);
+    }
+
+    @Benchmark
+    public Book addAndRemoveBook() {
+        Book book =
+                bookService.addBookToCatalog(
+                        Book.of("9780306406157", "Polar Journey", "Iorek Polarson", 12.90, null));
+        bookService.removeBookFromCatalog(book.isbn());
+        return book;
+    }
+
+    @Benchmark
+    public List<BookSuggestion> suggestBooks() {
+        return bookService.suggestBooks("north", 10);
+    }
+
+    @Benchmark
+    public BookPage viewBookPage() {
+        return bookService.viewBookPage(null, 50);
+    }
+
+    private String nextIsbn() {
+        next = (next + 1) % isbns.size();
+        return isbns.get(next);
+    }
+}
@@ -0,0 +1,73 @@
+package com.polarbookshop.catalogservice.domain;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Measures Bean Validation of a book, which runs on every POST and PUT. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookValidationBenchmark {
+
+    // The expression Book.isbn used to be validated with, to compare with the @Isbn validator.
+    private static final Pattern ISBN_PATTERN = Pattern.compile("^([0-9]{10}|[0-9]{13})$");
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Book validBook;
+    private Book bookWithInvalidIsbn;
+    private Book bookWithManyViolations;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validBook = Book.of("9780306406157", "Northern Lights", "Lyra Silvester", 9.90, null);
+        bookWithInvalidIsbn =
+                Book.of("a234567890", "Northern Lights", "Lyra Silvester", 9.90, null);
+        bookWithManyViolations = Book.of("a234567890", "", "", -9.90, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Book>> validateValidBook() {
+        return validator.validate(validBook);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Book>> validateBookWithInvalidIsbn() {
+        return validator.validate(bookWithInvalidIsbn);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Book>> validateBookWithManyViolations() {
+        return validator.validate(bookWithManyViolations);
+    }
+
+    @Benchmark
+    public boolean matchIsbnPattern() {
+        return ISBN_PATTERN.matcher(validBook.isbn()).matches();
+    }
+
+    @Benchmark
+    public boolean checkIsbn() {
+        return IsbnValidator.isValid(validBook.isbn());
+    }
+}
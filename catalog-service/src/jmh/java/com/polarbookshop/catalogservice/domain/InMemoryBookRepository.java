@@ -0,0 +1,247 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps books in a map so that benchmarks of the service layer don't measure the database.
+ * Search matches every word of the query against the title, author and publisher instead of
+ * ranking with PostgreSQL full-text search.
+ */
+class InMemoryBookRepository implements BookRepository {
+
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+    private final Map<String, Instant> tombstones = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        return Optional.ofNullable(books.get(isbn));
+    }
+
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        return books.containsKey(isbn);
+    }
+
+    @Override
+    public List<Book> findPageAfter(long afterId, int limit) {
+        return books.values().stream()
+                .filter(book -> book.id() > afterId)
+                .sorted(Comparator.comparing(Book::id))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<Book> search(String query, int limit, long offset) {
+        List<String> words = List.of(query.toLowerCase(Locale.ROOT).split("\\W+"));
+        return books.values().stream()
+                .filter(
+                        book -> {
+                            String text =
+                                    (book.title() + " " + book.author() + " " + book.publisher())
+                                            .toLowerCase(Locale.ROOT);
+                            return words.stream().allMatch(text::contains);
+                        })
+                .sorted(Comparator.comparing(Book::id))
+                .skip(offset)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void streamAll(int fetchSize, Consumer<Book> action) {
+        books.values().forEach(action);
+    }
+
+    @Override
+    public CatalogState findCatalogState() {
+        return new CatalogState(
+                books.size(),
+                Stream.concat(
+                                books.values().stream().map(Book::lastModifiedDate),
+                                tombstones.values().stream())
+                        .max(Comparator.naturalOrder())
+                        .orElse(null));
+    }
+
+    @Override
+    public Catalog findCatalog() {
+        return new Catalog(
+                findCatalogState(),
+                books.values().stream().sorted(Comparator.comparing(Book::id)).toList());
+    }
+
+    @Override
+    public List<Book> findAllByIsbn(Collection<String> isbns) {
+        return isbns.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public Optional<Book> insertIfAbsent(Book book, Instant modifiedDate, String modifiedBy) {
+        Book stored = stored(book, null, modifiedDate, modifiedBy);
+        return books.putIfAbsent(book.isbn(), stored) == null
+                ? Optional.of(stored)
+                : Optional.empty();
+    }
+
+    @Override
+    public List<BookRevision> upsertAllVersioned(
+            List<Book> booksToSave, Instant modifiedDate, String modifiedBy) {
+        var revisions = new ArrayList<BookRevision>(booksToSave.size());
+        for (Book book : booksToSave) {
+            Book previous = books.get(book.isbn());
+            if (previous != null && book.version() != 0 && previous.version() != book.version()) {
+                throw new BookVersionConflictException(book.isbn());
+            }
+            Book stored = stored(book, previous, modifiedDate, modifiedBy);
+            books.put(book.isbn(), stored);
+            revisions.add(
+                    previous == null
+                            ? new BookRevision(stored, null, null)
+                            : new BookRevision(stored, previous.title(), previous.author()));
+        }
+        return revisions;
+    }
+
+    @Override
+    public List<Book> upsertAll(List<Book> booksToSave, Instant modifiedDate, String modifiedBy) {
+        var replacedBooks = new ArrayList<Book>();
+        for (Book book : booksToSave) {
+            Book previous = books.get(book.isbn());
+            if (previous != null) {
+                replacedBooks.add(previous);
+            }
+            books.put(book.isbn(), stored(book, previous, modifiedDate, modifiedBy));
+        }
+        return replacedBooks;
+    }
+
+    @Override
+    public void deleteByIsbn(String isbn) {
+        if (books.remove(isbn) != null) {
+            tombstones.put(isbn, Instant.now());
+        }
+    }
+
+    @Override
+    public List<BookChange> findChangesAfter(
+            Instant sinceDate, String sinceIsbn, Instant settledBefore, int limit) {
+        Comparator<BookChange> changeOrder =
+                Comparator.comparing(BookChange::changedDate).thenComparing(BookChange::isbn);
+        var since = new BookChange(sinceIsbn, false, sinceDate, null);
+        Stream<BookChange> updates =
+                books.values().stream()
+                        .map(
+                                book ->
+                                        new BookChange(
+                                                book.isbn(), false, book.lastModifiedDate(), book));
+        Stream<BookChange> deletes =
+                tombstones.entrySet().stream()
+                        .map(entry -> new BookChange(entry.getKey(), true, entry.getValue(), null));
+        return Stream.concat(updates, deletes)
+                .filter(change -> changeOrder.compare(change, since) > 0)
+                .filter(change -> change.changedDate().isBefore(settledBefore))
+                .sorted(changeOrder)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends Book> S save(S book) {
+        Book previous = books.get(book.isbn());
+        if (previous != null && book.version() != 0 && previous.version() != book.version()) {
+            throw new BookVersionConflictException(book.isbn());
+        }
+        Book stored = stored(book, previous, Instant.now(), book.lastModifiedBy());
+        books.put(book.isbn(), stored);
+        return (S) stored;
+    }
+
+    @Override
+    public <S extends Book> Iterable<S> saveAll(Iterable<S> booksToSave) {
+        var saved = new ArrayList<S>();
+        booksToSave.forEach(book -> saved.add(save(book)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        return books.values().stream().filter(book -> book.id().equals(id)).findFirst();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public Iterable<Book> findAll() {
+        return List.copyOf(books.values());
+    }
+
+    @Override
+    public Iterable<Book> findAllById(Iterable<Long> idsToFind) {
+        var wanted = StreamSupport.stream(idsToFind.spliterator(), false).toList();
+        return books.values().stream().filter(book -> wanted.contains(book.id())).toList();
+    }
+
+    @Override
+    public long count() {
+        return books.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        findById(id).ifPresent(book -> books.remove(book.isbn()));
+    }
+
+    @Override
+    public void delete(Book book) {
+        books.remove(book.isbn());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> idsToDelete) {
+        idsToDelete.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Book> booksToDelete) {
+        booksToDelete.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        books.clear();
+    }
+
+    private Book stored(Book book, Book previous, Instant modifiedDate, String modifiedBy) {
+        return new Book(
+                previous != null ? previous.id() : ids.incrementAndGet(),
+                book.isbn(),
+                book.title(),
+                book.author(),
+                book.price(),
+                book.publisher(),
+                previous != null ? previous.createdDate() : modifiedDate,
+                modifiedDate,
+                previous != null ? previous.createdBy() : modifiedBy,
+                modifiedBy,
+                previous != null ? previous.version() + 1 : 1);
+    }
+}
@@ -0,0 +1,67 @@
+package com.polarbookshop.catalogservice.web;
+
+import com.polarbookshop.catalogservice.domain.Book;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.MethodParameter;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+/**
+ * Measures how a request body that fails validation is turned into the error map returned to
+ * the client, on its own and together with the validation that produces the errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookControllerAdviceBenchmark {
+
+    private final BookControllerAdvice advice = new BookControllerAdvice();
+
+    private ValidatorFactory validatorFactory;
+    private SpringValidatorAdapter validator;
+    private MethodParameter bookParameter;
+    private Book invalidBook;
+    private MethodArgumentNotValidException exception;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = new SpringValidatorAdapter(validatorFactory.getValidator());
+        bookParameter = new MethodParameter(BookController.class.getMethod("add", Book.class), 0);
+        invalidBook = Book.of("a234567890", "", "", -9.90, null);
+        exception = validate();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Map<String, String> mapValidationErrors() {
+        return advice.handleValidationException(exception);
+    }
+
+    @Benchmark
+    public Map<String, String> validateAndMapValidationErrors() {
+        return advice.handleValidationException(validate());
+    }
+
+    private MethodArgumentNotValidException validate() {
+        var bindingResult = new BeanPropertyBindingResult(invalidBook, "book");
+        validator.validate(invalidBook, bindingResult);
+        return new MethodArgumentNotValidException(bookParameter, bindingResult);
+    }
+}
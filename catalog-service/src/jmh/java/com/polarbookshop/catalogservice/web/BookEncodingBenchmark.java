@@ -0,0 +1,120 @@
+package com.polarbookshop.catalogservice.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.polarbookshop.catalogservice.domain.Book;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares the representations a caller can negotiate with {@code BookController}: encode and
+ * decode time for a single book (the {@code BookClient} lookup) and for a default-sized page. The
+ * payload sizes, plain and gzipped, are printed once per trial since JMH only reports timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookEncodingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private JavaType pageType;
+    private Book book;
+    private List<Book> page;
+    private byte[] encodedBook;
+    private byte[] encodedPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory =
+                switch (format) {
+                    case "cbor" -> new CBORFactory();
+                    case "smile" -> new SmileFactory();
+                    default -> new JsonFactory();
+                };
+        objectMapper =
+                Jackson2ObjectMapperBuilder.json()
+                        .factory(factory)
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build();
+        pageType = objectMapper.getTypeFactory().constructCollectionType(List.class, Book.class);
+        page = IntStream.range(0, PAGE_SIZE).mapToObj(BookEncodingBenchmark::book).toList();
+        book = page.get(0);
+        encodedBook = objectMapper.writeValueAsBytes(book);
+        encodedPage = objectMapper.writeValueAsBytes(page);
+        System.out.printf(
+                "%n%s: book %d bytes (%d gzipped), page of %d %d bytes (%d gzipped)%n",
+                format,
+                encodedBook.length,
+                gzippedSize(encodedBook),
+                PAGE_SIZE,
+                encodedPage.length,
+                gzippedSize(encodedPage));
+    }
+
+    @Benchmark
+    public byte[] encodeBook() throws IOException {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public Book decodeBook() throws IOException {
+        return objectMapper.readValue(encodedBook, Book.class);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<Book> decodePage() throws IOException {
+        return objectMapper.readValue(encodedPage, pageType);
+    }
+
+    private static Book book(int index) {
+        Instant modifiedDate = Instant.parse("2023-09-01T10:15:30.123456Z").plusSeconds(index);
+        return new Book(
+                (long) index + 1,
+                "978030640%04d".formatted(index),
+                "Northern Lights, volume " + index,
+                "Lyra Silvester",
+                9.90 + index,
+                "Polarsophia",
+                modifiedDate,
+                modifiedDate,
+                "isabelle",
+                "bjorn",
+                3);
+    }
+
+    private static int gzippedSize(byte[] content) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content);
+        }
+        return bytes.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.polarbookshop.catalogservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.polarbookshop.catalogservice.domain.Book;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/** Measures the JSON mapping of a book with the same settings as the Spring Boot mapper. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Book book;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper =
+                Jackson2ObjectMapperBuilder.json()
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build();
+        Instant modifiedDate = Instant.parse("2023-09-01T10:15:30.123456Z");
+        book =
+                new Book(
+                        42L,
+                        "9780306406157",
+                        "Northern Lights",
+                        "Lyra Silvester",
+                        9.90,
+                        "Polarsophia",
+                        modifiedDate,
+                        modifiedDate,
+                        "isabelle",
+                        "bjorn",
+                        3);
+        json = objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public Book deserialize() throws IOException {
+        return objectMapper.readValue(json, Book.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.polarbookshop.catalogservice.config;
+
+import com.polarbookshop.catalogservice.domain.BookCache;
+import com.polarbookshop.catalogservice.web.AdmissionControlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.function.Predicate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "polar.admission", name = "enabled", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final String BOOK_PATH_PREFIX = "/books/";
+
+    // Runs before Spring Security so that shed requests don't pay for token validation.
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdmissionProperties properties,
+            Environment environment,
+            BookCache bookCache,
+            MeterRegistry meterRegistry) {
+        int maxConcurrent =
+                properties.maxConcurrent() != null
+                        ? properties.maxConcurrent()
+                        : environment.getProperty(
+                                "spring.datasource.hikari.maximum-pool-size",
+                                Integer.class,
+                                DEFAULT_POOL_SIZE);
+        var filter =
+                new AdmissionControlFilter(
+                        maxConcurrent,
+                        maxConcurrent * properties.queueFactor(),
+                        properties.maxWait(),
+                        properties.retryAfter(),
+                        servedFromMemory(bookCache),
+                        meterRegistry);
+        var registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/books", "/books/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    // Suggestions come from the in-memory index and cached books from the book cache. A book
+    // evicted right after the check is read without a slot, which the connection pool bounds.
+    private static Predicate<HttpServletRequest> servedFromMemory(BookCache bookCache) {
+        return request -> {
+            if (!HttpMethod.GET.matches(request.getMethod())) {
+                return false;
+            }
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            if (path.equals("/books/suggest")) {
+                return true;
+            }
+            return path.startsWith(BOOK_PATH_PREFIX)
+                    && bookCache.contains(path.substring(BOOK_PATH_PREFIX.length()));
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.polarbookshop.catalogservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.admission")
+public record AdmissionProperties(
+        /** Whether book requests go through admission control. */
+        @DefaultValue("true") boolean enabled,
+        /**
+         * Requests handled at the same time. Defaults to the size of the connection pool. A
+         * streamed book list counts against it until the client has read it in full.
+         */
+        Integer maxConcurrent,
+        /** Requests waiting for a slot, as a multiple of the concurrency limit. */
+        @DefaultValue("2") int queueFactor,
+        /** How long a queued request waits for a slot before it's turned away. */
+        @DefaultValue("1s") Duration maxWait,
+        /** Delay suggested to rejected clients through the Retry-After header. */
+        @DefaultValue("1s") Duration retryAfter) {}
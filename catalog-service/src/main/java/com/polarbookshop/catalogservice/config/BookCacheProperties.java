@@ -0,0 +1,12 @@
+package com.polarbookshop.catalogservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.cache.books")
+public record BookCacheProperties(
+        /** Maximum number of books kept in memory before the least used ones are evicted. */
+        @DefaultValue("10000") long maximumSize,
+        /** How long a cached book is served before it's reloaded from the database. */
+        @DefaultValue("10m") Duration expireAfterWrite) {}
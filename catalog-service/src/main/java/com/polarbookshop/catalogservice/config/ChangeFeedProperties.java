@@ -0,0 +1,14 @@
+package com.polarbookshop.catalogservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.changes")
+public record ChangeFeedProperties(
+        /**
+         * How old a change must be before it's returned. A transaction can commit after another
+         * one that got a later timestamp, so the most recent changes are held back until any
+         * such transaction has committed.
+         */
+        @DefaultValue("2s") Duration settleTime) {}
@@ -0,0 +1,76 @@
+package com.polarbookshop.catalogservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+
+/**
+ * Bounds every statement by the {@link RequestDeadline} of the request it runs for, so that a
+ * query the caller stopped waiting for gives its pooled connection back.
+ *
+ * <p>JDBC query timeouts have a granularity of one second. The remaining budget is rounded up,
+ * so a query may outlive its caller by less than a second but is never cut short. Statements
+ * issued after the deadline has passed aren't sent to the database at all.
+ */
+public class DeadlineAwareJdbcTemplate extends JdbcTemplate {
+
+    private static final String QUERY_CANCELED_STATE = "57014";
+
+    private final Counter expiredBeforeQuery;
+    private final Counter cancelledQueries;
+
+    public DeadlineAwareJdbcTemplate(DataSource dataSource, MeterRegistry meterRegistry) {
+        super(dataSource);
+        this.expiredBeforeQuery = exceededCounter("before_query", meterRegistry);
+        this.cancelledQueries = exceededCounter("query", meterRegistry);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        Optional<RequestDeadline> deadline = RequestDeadline.current();
+        if (deadline.isEmpty()) {
+            return;
+        }
+        long remainingMillis = deadline.get().remaining().toMillis();
+        if (remainingMillis <= 0) {
+            expiredBeforeQuery.increment();
+            throw new SQLTimeoutException(
+                    "The request deadline passed before the query was sent.", QUERY_CANCELED_STATE);
+        }
+        int seconds = (int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000);
+        int queryTimeout = stmt.getQueryTimeout();
+        if (queryTimeout == 0 || seconds < queryTimeout) {
+            stmt.setQueryTimeout(seconds);
+        }
+    }
+
+    // The driver reports a query cancelled on timeout with a plain SQLException.
+    @Override
+    protected DataAccessException translateException(
+            String task, @Nullable String sql, SQLException ex) {
+        if (QUERY_CANCELED_STATE.equals(ex.getSQLState())
+                && RequestDeadline.current().isPresent()) {
+            if (!(ex instanceof SQLTimeoutException)) {
+                cancelledQueries.increment();
+            }
+            return new QueryTimeoutException(task + " exceeded the request deadline", ex);
+        }
+        return super.translateException(task, sql, ex);
+    }
+
+    private static Counter exceededCounter(String stage, MeterRegistry meterRegistry) {
+        return Counter.builder("polar.deadline.exceeded")
+                .description("Requests whose deadline passed while the catalog worked on them")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.polarbookshop.catalogservice.config;
+
+import com.polarbookshop.catalogservice.web.DeadlineFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "polar.deadline", name = "enabled", matchIfMissing = true)
+public class DeadlineConfig {
+
+    // Runs ahead of admission control, so that the time spent queueing counts against the budget.
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilter(
+            DeadlineProperties properties, MeterRegistry meterRegistry) {
+        var registration =
+                new FilterRegistrationBean<>(
+                        new DeadlineFilter(properties.maxTimeout(), meterRegistry));
+        registration.addUrlPatterns("/books", "/books/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+
+    // Replaces the auto-configured template, which Spring Data JDBC also runs its queries through.
+    @Bean
+    public DeadlineAwareJdbcTemplate jdbcTemplate(
+            DataSource dataSource, MeterRegistry meterRegistry) {
+        return new DeadlineAwareJdbcTemplate(dataSource, meterRegistry);
+    }
+}
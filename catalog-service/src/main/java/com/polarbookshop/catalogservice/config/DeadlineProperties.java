@@ -0,0 +1,16 @@
+package com.polarbookshop.catalogservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.deadline")
+public record DeadlineProperties(
+        /**
+         * Whether deadlines sent by callers bound the database work done for them, streamed book
+         * lists included. Without a deadline, a query runs to completion even if its client has
+         * disconnected.
+         */
+        @DefaultValue("true") boolean enabled,
+        /** Largest budget accepted from a caller, longer ones are cut down to it. */
+        @DefaultValue("30s") Duration maxTimeout) {}
@@ -0,0 +1,11 @@
+package com.polarbookshop.catalogservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.import")
+public record ImportProperties(
+        /** Number of books written to the database in a single JDBC batch. */
+        @DefaultValue("1000") int batchSize,
+        /** Maximum number of rejected rows detailed in an import report. */
+        @DefaultValue("1000") int maxReportedRejections) {}
@@ -0,0 +1,13 @@
+package com.polarbookshop.catalogservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.paging")
+public record PagingProperties(
+        /** Page size used when the client doesn't ask for one. */
+        @DefaultValue("50") int defaultLimit,
+        /** Upper bound on the page size a client can ask for. */
+        @DefaultValue("500") int maxLimit,
+        /** Number of rows fetched per JDBC round trip when streaming the catalog. */
+        @DefaultValue("500") int streamFetchSize) {}
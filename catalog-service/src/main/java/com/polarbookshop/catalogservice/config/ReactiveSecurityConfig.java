@@ -0,0 +1,53 @@
+package com.polarbookshop.catalogservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.savedrequest.NoOpServerRequestCache;
+
+/** Same access rules as {@link SecurityConfig}, for the WebFlux stack. */
+@EnableWebFluxSecurity
+@Configuration
+@Profile("reactive")
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        var jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        jwtGrantedAuthoritiesConverter.setAuthorityPrefix("ROLE_");
+        jwtGrantedAuthoritiesConverter.setAuthoritiesClaimName("roles");
+        var jwtAuthenticationConverter = new JwtAuthenticationConverter();
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(
+                jwtGrantedAuthoritiesConverter);
+        var reactiveJwtAuthenticationConverter =
+                new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter);
+
+        return http.authorizeExchange(
+                        authorize ->
+                                authorize
+                                        .pathMatchers(HttpMethod.GET, "/", "/books/**")
+                                        .permitAll()
+                                        .pathMatchers(HttpMethod.GET, "/actuator/**")
+                                        .permitAll()
+                                        .anyExchange()
+                                        .hasRole("employee"))
+                .oauth2ResourceServer(
+                        configurer ->
+                                configurer.jwt(
+                                        jwt ->
+                                                jwt.jwtAuthenticationConverter(
+                                                        reactiveJwtAuthenticationConverter)))
+                .requestCache(
+                        requestCacheSpec ->
+                                requestCacheSpec.requestCache(NoOpServerRequestCache.getInstance()))
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.polarbookshop.catalogservice.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured data source with one that routes read-only transactions to the
+ * read replicas. Each replica gets its own Hikari pool, tagged with its name in the {@code
+ * hikaricp.*} metrics.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "polar.replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource =
+                properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            ReplicaProperties properties,
+            MeterRegistry meterRegistry)
+            throws SQLException {
+        HikariDataSource primary = primaryDataSource.unwrap(HikariDataSource.class);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.urls().size(); i++) {
+            String name = "replica-" + i;
+            replicas.put(
+                    name,
+                    replicaDataSource(
+                            name, properties.urls().get(i), primary, properties, meterRegistry));
+        }
+        return new ReplicaHealthMonitor(
+                primaryDataSource,
+                replicas,
+                properties.maxLag(),
+                properties.healthCheckInterval(),
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            ReplicaHealthMonitor replicaHealthMonitor,
+            MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(
+                        primaryDataSource, replicaHealthMonitor, meterRegistry));
+    }
+
+    private static HikariDataSource replicaDataSource(
+            String name,
+            String url,
+            HikariDataSource primary,
+            ReplicaProperties properties,
+            MeterRegistry meterRegistry) {
+        var config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(
+                properties.username() != null ? properties.username() : primary.getUsername());
+        config.setPassword(
+                properties.password() != null ? properties.password() : primary.getPassword());
+        config.setMaximumPoolSize(primary.getMaximumPoolSize());
+        config.setConnectionTimeout(primary.getConnectionTimeout());
+        config.setDataSourceProperties(primary.getDataSourceProperties());
+        config.setReadOnly(true);
+        // A replica that is down at startup is kept out of rotation instead of failing the boot.
+        config.setInitializationFailTimeout(-1);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(config);
+    }
+}
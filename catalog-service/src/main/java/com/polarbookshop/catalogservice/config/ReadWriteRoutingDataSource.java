@@ -0,0 +1,59 @@
+package com.polarbookshop.catalogservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to a healthy read replica and everything else
+ * to the primary.
+ *
+ * <p>The transaction manager opens its connection before the read-only flag is bound to the
+ * thread, so this data source has to sit behind a {@link
+ * org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that only asks for a
+ * connection once the first statement runs.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaHealthMonitor replicaHealthMonitor;
+    private final Counter primaryFallbacks;
+
+    public ReadWriteRoutingDataSource(
+            DataSource primary,
+            ReplicaHealthMonitor replicaHealthMonitor,
+            MeterRegistry meterRegistry) {
+        this.replicaHealthMonitor = replicaHealthMonitor;
+        this.primaryFallbacks =
+                Counter.builder("polar.datasource.replica.fallbacks")
+                        .description(
+                                "Read-only transactions sent to the primary because no replica"
+                                        + " was healthy")
+                        .register(meterRegistry);
+        Map<Object, Object> targets = new HashMap<>(replicaHealthMonitor.replicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return replicaHealthMonitor
+                .nextHealthyReplica()
+                .orElseGet(
+                        () -> {
+                            primaryFallbacks.increment();
+                            return PRIMARY;
+                        });
+    }
+}
@@ -0,0 +1,192 @@
+package com.polarbookshop.catalogservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Polls the read replicas for their replication lag and keeps track of the ones that are
+ * reachable, streaming from the primary and close enough to it to serve reads. The lag is the
+ * age of the last replayed transaction while the primary has WAL the replica hasn't replayed.
+ */
+public class ReplicaHealthMonitor implements InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private static final String PRIMARY_WAL_SQL = "select pg_current_wal_lsn()::text";
+
+    // A standby only counts as up to date when it's still streaming from the primary. Without a
+    // WAL receiver it keeps answering with whatever it replayed last, however old that is. The
+    // receiver's status is only visible with pg_read_all_stats, so without it a running receiver
+    // counts as streaming.
+    private static final String REPLICA_STATUS_SQL =
+            """
+            select pg_is_in_recovery(),
+                exists (
+                    select 1 from pg_stat_wal_receiver
+                    where coalesce(status, 'streaming') = 'streaming'
+                ),
+                pg_wal_lsn_diff(?::pg_lsn, pg_last_wal_replay_lsn()),
+                pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn(),
+                extract(epoch from now() - pg_last_xact_replay_timestamp())
+            """;
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile List<String> healthyReplicas = List.of();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaHealthMonitor(
+            DataSource primary,
+            Map<String, DataSource> replicas,
+            Duration maxLag,
+            Duration checkInterval,
+            MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = Map.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        for (String name : replicas.keySet()) {
+            Gauge.builder(
+                            "polar.datasource.replica.lag",
+                            lagSeconds,
+                            lags -> lags.getOrDefault(name, Double.NaN))
+                    .tag("replica", name)
+                    .baseUnit("seconds")
+                    .description("Replication lag measured at the last health check")
+                    .register(meterRegistry);
+            Gauge.builder(
+                            "polar.datasource.replica.healthy",
+                            this,
+                            monitor -> monitor.healthyReplicas.contains(name) ? 1 : 0)
+                    .tag("replica", name)
+                    .description("Whether the replica currently serves read-only transactions")
+                    .register(meterRegistry);
+        }
+    }
+
+    public Map<String, DataSource> replicas() {
+        return replicas;
+    }
+
+    /** Picks the next healthy replica in round-robin order, if there is any. */
+    public Optional<String> nextHealthyReplica() {
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return Optional.empty();
+        }
+        int index = Math.floorMod(nextReplica.getAndIncrement(), healthy.size());
+        return Optional.of(healthy.get(index));
+    }
+
+    public void checkReplicas() {
+        String primaryWal = primaryWal();
+        var healthy = new ArrayList<String>(replicas.size());
+        replicas.forEach(
+                (name, dataSource) -> {
+                    ReplicaStatus status = replicaStatus(name, dataSource, primaryWal);
+                    lagSeconds.put(name, status.lagSeconds());
+                    // NaN marks an unreachable replica, which has been logged already.
+                    if (Double.isNaN(status.lagSeconds())) {
+                        return;
+                    }
+                    if (!status.streaming()) {
+                        LOGGER.warn("Read replica {} isn't streaming from the primary", name);
+                    } else if (status.lagSeconds() <= maxLag.toMillis() / 1000.0) {
+                        healthy.add(name);
+                    } else {
+                        LOGGER.warn(
+                                "Read replica {} is {}s behind the primary",
+                                name,
+                                status.lagSeconds());
+                    }
+                });
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    // The current WAL position of the primary, or null when it can't be read, in which case a
+    // standby that replayed all the WAL it received counts as up to date.
+    private String primaryWal() {
+        try (var connection = primary.getConnection();
+                var statement = connection.createStatement();
+                var resultSet = statement.executeQuery(PRIMARY_WAL_SQL)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        } catch (SQLException e) {
+            LOGGER.warn("Primary WAL position is unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static ReplicaStatus replicaStatus(
+            String name, DataSource dataSource, String primaryWal) {
+        try (var connection = dataSource.getConnection();
+                var statement = connection.prepareStatement(REPLICA_STATUS_SQL)) {
+            statement.setString(1, primaryWal);
+            try (var resultSet = statement.executeQuery()) {
+                resultSet.next();
+                if (!resultSet.getBoolean(1)) {
+                    return new ReplicaStatus(0, true);
+                }
+                boolean streaming = resultSet.getBoolean(2);
+                double walBehind = resultSet.getDouble(3);
+                boolean upToDate = resultSet.wasNull() ? resultSet.getBoolean(4) : walBehind <= 0;
+                double replayAge = resultSet.getDouble(5);
+                // A standby that never replayed a transaction has no replay time to go by.
+                if (resultSet.wasNull()) {
+                    replayAge = Double.POSITIVE_INFINITY;
+                }
+                return new ReplicaStatus(upToDate ? 0 : Math.max(replayAge, 0), streaming);
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Read replica {} is unreachable: {}", name, e.getMessage());
+            return new ReplicaStatus(Double.NaN, false);
+        }
+    }
+
+    private record ReplicaStatus(double lagSeconds, boolean streaming) {}
+
+    @Override
+    public void afterPropertiesSet() {
+        checkReplicas();
+        scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("replica-health").daemon().factory());
+        scheduler.scheduleWithFixedDelay(
+                this::checkReplicas,
+                checkInterval.toMillis(),
+                checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.polarbookshop.catalogservice.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.replicas")
+public record ReplicaProperties(
+        /** Whether read-only transactions are routed to the read replicas. */
+        @DefaultValue("false") boolean enabled,
+        /** JDBC URLs of the read replicas. */
+        @DefaultValue List<String> urls,
+        /** User for the replicas. Defaults to the primary's user. */
+        String username,
+        /** Password for the replicas. Defaults to the primary's password. */
+        String password,
+        /** Replication lag above which a replica is taken out of rotation. */
+        @DefaultValue("5s") Duration maxLag,
+        /** Time between two lag checks of the replicas. */
+        @DefaultValue("5s") Duration healthCheckInterval) {}
@@ -0,0 +1,64 @@
+package com.polarbookshop.catalogservice.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Time budget a caller gave the current request, bound to the thread serving it.
+ *
+ * <p>Callers send the budget they have left, in milliseconds, in the {@value #HEADER} header. A
+ * relative budget doesn't depend on the clocks of the two hosts agreeing.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static RequestDeadline after(Duration timeout) {
+        return new RequestDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<RequestDeadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean hasPassed() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Runs the action with this deadline bound to the current thread, restoring the deadline bound
+     * before once it returns. The two exception types let servlet code pass its checked exceptions
+     * through.
+     */
+    public <X extends Exception, Y extends Exception> void run(Action<X, Y> action) throws X, Y {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            action.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Action<X extends Exception, Y extends Exception> {
+
+        void run() throws X, Y;
+    }
+}
@@ -0,0 +1,18 @@
+package com.polarbookshop.catalogservice.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.snapshot")
+public record SnapshotProperties(
+        /** Whether reads fall back to a local snapshot of the catalog when the pool times out. */
+        @DefaultValue("true") boolean enabled,
+        /**
+         * File the snapshot is written to. Defaults to a file in the temporary directory named
+         * after the database, so that it's only shared by instances of the same catalog.
+         */
+        Path path,
+        /** How often the snapshot is rewritten from the database. */
+        @DefaultValue("5m") Duration refreshInterval) {}
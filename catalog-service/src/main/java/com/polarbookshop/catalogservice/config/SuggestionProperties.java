@@ -0,0 +1,15 @@
+package com.polarbookshop.catalogservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.suggestion")
+public record SuggestionProperties(
+        /** Number of suggestions returned when the client doesn't ask for a limit. */
+        @DefaultValue("10") int defaultLimit,
+        /** Upper bound on the number of suggestions a client can ask for. */
+        @DefaultValue("50") int maxLimit,
+        /** Number of pending changes after which they're merged into the sorted index. */
+        @DefaultValue("10000") int compactionThreshold,
+        /** Number of rows fetched at a time while the index is rebuilt from the database. */
+        @DefaultValue("1000") int rebuildFetchSize) {}
@@ -0,0 +1,18 @@
+package com.polarbookshop.catalogservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.testdata")
+public record TestDataProperties(
+        /** Number of synthetic books generated on top of the demo ones. */
+        @DefaultValue("0") int bookCount,
+        /** Number of books written to the database in a single JDBC batch. */
+        @DefaultValue("1000") int batchSize,
+        /**
+         * Number of batches written concurrently. Capped by {@code
+         * spring.datasource.hikari.maximum-pool-size}.
+         */
+        @DefaultValue("4") int parallelism,
+        /** Seed of the generator, so that two runs produce the same catalog. */
+        @DefaultValue("42") long seed) {}
@@ -0,0 +1,57 @@
+package com.polarbookshop.catalogservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+@Configuration
+@ConditionalOnProperty(prefix = "polar.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Duration DEFAULT_PERMIT_TIMEOUT = Duration.ofSeconds(1);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler ->
+                protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // Wraps the HikariDataSource beans: the auto-configured pool, or the primary pool when
+    // read replicas are enabled. The replica pools aren't beans, so reads sent to them queue in
+    // Hikari. A caller waits up to the permit timeout for its turn, then up to the pool's
+    // connection timeout for a connection. As many threads hold a permit as the pool has
+    // connections, so the second wait is only long while the pool is reconnecting.
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            Environment environment) {
+        Duration permitTimeout =
+                environment.getProperty(
+                        "polar.virtual-threads.permit-timeout",
+                        Duration.class,
+                        DEFAULT_PERMIT_TIMEOUT);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    return new ConnectionLimitingDataSource(
+                            dataSource, dataSource.getMaximumPoolSize(), permitTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
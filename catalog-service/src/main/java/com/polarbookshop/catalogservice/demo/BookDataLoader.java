@@ -7,20 +7,27 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 @Component
-@Profile("testdata")
+@Profile("testdata & !reactive")
 @RequiredArgsConstructor
 public class BookDataLoader {
 
     private final BookRepository bookRepository;
+    private final SyntheticCatalogGenerator syntheticCatalogGenerator;
 
+    // Runs ahead of the other startup listeners, so that the suggestion index is built from the
+    // loaded books and the first snapshot refresh doesn't compete with the writers.
     @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
     public void loadBookTestData() {
         bookRepository.deleteAll();
-        var book1 = Book.of("1234567891", "Northern Lights", "Lyra Silvester", 9.90, "publisher");
-        var book2 = Book.of("1234567892", "Polar Journey", "Iorak Polarson", 12.90, "publisher");
+        var book1 = Book.of("1234567814", "Northern Lights", "Lyra Silvester", 9.90, "publisher");
+        var book2 = Book.of("1234567822", "Polar Journey", "Iorak Polarson", 12.90, "publisher");
         bookRepository.saveAll(List.of(book1, book2));
+        syntheticCatalogGenerator.generate();
     }
 }
@@ -0,0 +1,243 @@
+package com.polarbookshop.catalogservice.demo;
+
+import com.polarbookshop.catalogservice.config.TestDataProperties;
+import com.polarbookshop.catalogservice.domain.Book;
+import com.polarbookshop.catalogservice.domain.BookRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the catalog with a large number of made-up books for load tests and index tuning.
+ *
+ * <p>Authors and publishers follow a Zipf distribution, so a few of them own most of the
+ * catalog as in a real one. About one book in five gets a legacy ISBN-10. Every batch derives
+ * its random numbers from the seed and its own index, so batches can be written in any order
+ * and in parallel and still produce the same catalog.
+ */
+@Component
+@Profile("testdata & !reactive")
+@RequiredArgsConstructor
+public class SyntheticCatalogGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyntheticCatalogGenerator.class);
+
+    // Books are numbered from here, which keeps them apart from the hand-written demo books.
+    private static final long FIRST_BOOK_NUMBER = 100_000_000L;
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final String[] ADJECTIVES = {
+        "Silent", "Northern", "Frozen", "Hidden", "Last", "Broken", "Golden", "Endless",
+        "Forgotten", "Distant", "Polar", "Secret", "Wild", "Midnight", "Crimson", "Lost",
+        "Ancient", "Burning", "Quiet", "Restless"
+    };
+
+    private static final String[] NOUNS = {
+        "Lights", "Journey", "River", "Kingdom", "Winter", "Garden", "Horizon", "Empire",
+        "Library", "Voyage", "Island", "Mountain", "Compass", "Harbor", "Forest", "Storm",
+        "Archive", "Lantern", "Glacier", "Orchard", "Citadel", "Expedition", "Tide", "Atlas"
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "Lyra", "Iorek", "Ada", "Bjorn", "Clara", "Dmitri", "Elena", "Farid", "Greta", "Hiro",
+        "Ingrid", "Jonas", "Kaia", "Luca", "Maya", "Nils", "Olga", "Pavel", "Quinn", "Rosa",
+        "Sven", "Tove", "Ulla", "Viktor", "Wanda", "Yuki", "Zara"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Silvester",
+        "Polarson",
+        "Lindqvist",
+        "Nakamura",
+        "Okafor",
+        "Petrova",
+        "Rossi",
+        "Haugen",
+        "Moreau",
+        "Castillo",
+        "Berg",
+        "Novak",
+        "Ivanova",
+        "Johansen",
+        "Keller",
+        "Larsen",
+        "Fischer",
+        "Dahl",
+        "Sato",
+        "Andersen"
+    };
+
+    private static final String[] PUBLISHERS = {
+        "Polarsophia",
+        "Aurora Press",
+        "Northwind Books",
+        "Glacier House",
+        "Fjord & Sons",
+        "Tundra Publishing",
+        "Midnight Sun Editions",
+        "Snowline Media",
+        "Icebreaker Books",
+        "Arctic Circle Press",
+        "Borealis",
+        "Permafrost Editions",
+        "Husky House",
+        "Floe Publishing",
+        "Whiteout Books",
+        "Svalbard University Press"
+    };
+
+    private static final int AUTHOR_COUNT = FIRST_NAMES.length * LAST_NAMES.length;
+
+    private static final double[] AUTHOR_WEIGHTS = zipfCumulativeWeights(AUTHOR_COUNT, 1.1);
+    private static final double[] PUBLISHER_WEIGHTS = zipfCumulativeWeights(PUBLISHERS.length, 1.3);
+
+    private final BookRepository bookRepository;
+    private final TestDataProperties properties;
+    private final Environment environment;
+
+    public void generate() {
+        int bookCount = properties.bookCount();
+        if (bookCount <= 0) {
+            return;
+        }
+        int batchSize = properties.batchSize();
+        int batchCount = (bookCount + batchSize - 1) / batchSize;
+        int writerCount = writerCount();
+        Instant start = Instant.now();
+        LOGGER.info(
+                "Generating {} books in {} batches with {} writers",
+                bookCount,
+                batchCount,
+                writerCount);
+        try (var executor = Executors.newFixedThreadPool(writerCount)) {
+            var batches = new ArrayList<Future<?>>(batchCount);
+            for (int batch = 0; batch < batchCount; batch++) {
+                int first = batch * batchSize;
+                int size = Math.min(batchSize, bookCount - first);
+                int batchIndex = batch;
+                batches.add(
+                        executor.submit(
+                                () ->
+                                        bookRepository.upsertAll(
+                                                generateBatch(batchIndex, first, size),
+                                                Instant.now(),
+                                                null)));
+            }
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating test books", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to generate test books", e.getCause());
+        }
+        LOGGER.info(
+                "Generated {} books in {}s",
+                bookCount,
+                Duration.between(start, Instant.now()).toSeconds());
+    }
+
+    // Each writer holds a connection for a whole batch, so writers beyond the pool size would
+    // only queue for one.
+    int writerCount() {
+        int poolSize =
+                environment.getProperty(
+                        "spring.datasource.hikari.maximum-pool-size",
+                        Integer.class,
+                        DEFAULT_POOL_SIZE);
+        return Math.max(1, Math.min(properties.parallelism(), poolSize));
+    }
+
+    List<Book> generateBatch(int batchIndex, int first, int size) {
+        var random = new SplittableRandom(properties.seed() * 31 + batchIndex);
+        var books = new ArrayList<Book>(size);
+        for (int i = 0; i < size; i++) {
+            long number = FIRST_BOOK_NUMBER + first + i;
+            int author = sample(AUTHOR_WEIGHTS, random);
+            books.add(
+                    Book.of(
+                            random.nextInt(5) == 0 ? isbn10(number) : isbn13(number),
+                            title(random),
+                            FIRST_NAMES[author % FIRST_NAMES.length]
+                                    + " "
+                                    + LAST_NAMES[author / FIRST_NAMES.length],
+                            price(random),
+                            PUBLISHERS[sample(PUBLISHER_WEIGHTS, random)]));
+        }
+        return books;
+    }
+
+    private static String title(SplittableRandom random) {
+        String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        String otherNoun = NOUNS[random.nextInt(NOUNS.length)];
+        return switch (random.nextInt(4)) {
+            case 0 -> "The " + adjective + " " + noun;
+            case 1 -> adjective + " " + noun;
+            case 2 -> "The " + noun + " of the " + adjective + " " + otherNoun;
+            default -> adjective + " " + noun + ", Volume " + (random.nextInt(9) + 1);
+        };
+    }
+
+    // Skewed towards cheap paperbacks, ending in .x9 like shelf prices usually do.
+    private static double price(SplittableRandom random) {
+        double base = 4 + Math.pow(random.nextDouble(), 3) * 86;
+        return Math.floor(base) + 0.49 + (random.nextBoolean() ? 0.5 : 0);
+    }
+
+    /** A 978 ISBN-13 built from the book number, with a valid check digit. */
+    static String isbn13(long number) {
+        String digits = "978" + String.format("%09d", number % 1_000_000_000L);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+
+    /**
+     * An ISBN-10 built from the book number, with a valid check digit. The book gets an ISBN-13
+     * instead when its check digit would be an X.
+     */
+    static String isbn10(long number) {
+        String digits = String.format("%09d", number % 1_000_000_000L);
+        int sum = 0;
+        for (int i = 0; i < 9; i++) {
+            sum += (digits.charAt(i) - '0') * (10 - i);
+        }
+        int check = (11 - sum % 11) % 11;
+        return check == 10 ? isbn13(number) : digits + check;
+    }
+
+    private static int sample(double[] cumulativeWeights, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulativeWeights.length - 1);
+    }
+
+    private static double[] zipfCumulativeWeights(int size, double exponent) {
+        double[] weights = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            weights[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            weights[rank] /= total;
+        }
+        return weights;
+    }
+}
@@ -2,18 +2,13 @@ package com.polarbookshop.catalogservice.domain;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import java.time.Instant;
 import org.springframework.data.annotation.*;
 
 public record Book(
         @Id Long id,
-        @NotBlank(message = "The book ISBN must be defined.")
-                @Pattern(
-                        regexp = "^([0-9]{10}|[0-9]{13})$",
-                        message = "The ISBN format must be valid.")
-                String isbn,
+        @NotBlank(message = "The book ISBN must be defined.") @Isbn String isbn,
         @NotBlank(message = "The book title must be defined.") String title,
         @NotBlank(message = "The book author must be defined.") String author,
         @NotNull(message = "The book price must be defined.")
@@ -0,0 +1,98 @@
+package com.polarbookshop.catalogservice.domain;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.polarbookshop.catalogservice.config.BookCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookCache {
+
+    private final Cache<String, Book> cache;
+    // Advanced on every eviction, so that a book read before it is never cached after it.
+    private final AtomicLong generation = new AtomicLong();
+
+    public BookCache(BookCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache =
+                Caffeine.newBuilder()
+                        .maximumSize(properties.maximumSize())
+                        .expireAfterWrite(properties.expireAfterWrite())
+                        .recordStats()
+                        .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books");
+    }
+
+    public Optional<Book> get(String isbn, Function<String, Optional<Book>> loader) {
+        Book cachedBook = cache.getIfPresent(isbn);
+        if (cachedBook != null) {
+            return Optional.of(cachedBook);
+        }
+        long loadGeneration = generation();
+        Optional<Book> loadedBook = loader.apply(isbn);
+        loadedBook.ifPresent(book -> put(book, loadGeneration));
+        return loadedBook;
+    }
+
+    // Only the books missing from the cache are handed to the loader, in a single call.
+    public List<Book> getAll(Collection<String> isbns, Function<List<String>, List<Book>> loader) {
+        Map<String, Book> books = new HashMap<>(cache.getAllPresent(isbns));
+        List<String> missingIsbns =
+                isbns.stream().filter(isbn -> !books.containsKey(isbn)).toList();
+        if (!missingIsbns.isEmpty()) {
+            long loadGeneration = generation();
+            for (Book loadedBook : loader.apply(missingIsbns)) {
+                put(loadedBook, loadGeneration);
+                books.put(loadedBook.isbn(), loadedBook);
+            }
+        }
+        return isbns.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    // Looks through the map view, so that peeking doesn't count as a hit or a miss.
+    public boolean contains(String isbn) {
+        return cache.asMap().containsKey(isbn);
+    }
+
+    /** Returns the generation to pass to {@link #put} for a book about to be read or written. */
+    public long generation() {
+        return generation.get();
+    }
+
+    // A book read or written before a concurrent delete is dropped rather than cached after the
+    // delete evicted it. Among concurrent updates, only the entry with the highest version is
+    // kept. Both checks run under the entry's lock, so they can't interleave with an eviction.
+    public void put(Book book, long bookGeneration) {
+        cache.asMap()
+                .compute(
+                        book.isbn(),
+                        (isbn, cachedBook) -> {
+                            if (generation.get() != bookGeneration) {
+                                return cachedBook;
+                            }
+                            if (cachedBook != null && cachedBook.version() > book.version()) {
+                                return cachedBook;
+                            }
+                            return book;
+                        });
+    }
+
+    public void evict(String isbn) {
+        cache.asMap()
+                .compute(
+                        isbn,
+                        (key, cachedBook) -> {
+                            generation.incrementAndGet();
+                            return null;
+                        });
+    }
+}
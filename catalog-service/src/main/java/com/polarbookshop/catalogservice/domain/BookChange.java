@@ -0,0 +1,9 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.time.Instant;
+
+/**
+ * A book that was created or updated, or a tombstone for a deleted one. The book is null for
+ * tombstones.
+ */
+public record BookChange(String isbn, boolean deleted, Instant changedDate, Book book) {}
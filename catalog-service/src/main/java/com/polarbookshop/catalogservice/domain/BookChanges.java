@@ -0,0 +1,9 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.util.List;
+
+/**
+ * A page of changes. The next cursor is always set, so a consumer can store it and poll with it
+ * later. An empty page means the consumer is up to date.
+ */
+public record BookChanges(List<BookChange> changes, String nextCursor) {}
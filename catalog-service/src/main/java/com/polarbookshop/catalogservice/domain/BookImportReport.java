@@ -0,0 +1,9 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.util.List;
+
+public record BookImportReport(
+        long importedCount, long rejectedCount, List<RejectedRow> rejectedRows) {
+
+    public record RejectedRow(long lineNumber, String isbn, List<String> errors) {}
+}
@@ -0,0 +1,11 @@
+package com.polarbookshop.catalogservice.domain;
+
+public record BookImportRow(long lineNumber, Book book, String parseError) {
+    public static BookImportRow parsed(long lineNumber, Book book) {
+        return new BookImportRow(lineNumber, book, null);
+    }
+
+    public static BookImportRow unparsable(long lineNumber, String parseError) {
+        return new BookImportRow(lineNumber, null, parseError);
+    }
+}
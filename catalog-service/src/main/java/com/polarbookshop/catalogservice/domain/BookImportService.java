@@ -0,0 +1,84 @@
+package com.polarbookshop.catalogservice.domain;
+
+import com.polarbookshop.catalogservice.config.ImportProperties;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Service;
+
+@Service
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class BookImportService {
+
+    private final BookRepository repository;
+    private final BookCache bookCache;
+    private final BookSuggestionIndex suggestionIndex;
+    private final Validator validator;
+    private final AuditorAware<String> auditorAware;
+    private final ImportProperties importProperties;
+
+    public BookImportReport importBooks(Stream<BookImportRow> rows) {
+        String auditor = auditorAware.getCurrentAuditor().orElse(null);
+        var batch = new LinkedHashMap<String, Book>();
+        var rejectedRows = new ArrayList<BookImportReport.RejectedRow>();
+        long importedCount = 0;
+        long rejectedCount = 0;
+        for (var iterator = rows.iterator(); iterator.hasNext(); ) {
+            BookImportRow row = iterator.next();
+            List<String> errors = validate(row);
+            if (!errors.isEmpty()) {
+                rejectedCount++;
+                if (rejectedRows.size() < importProperties.maxReportedRejections()) {
+                    String isbn = row.book() != null ? row.book().isbn() : null;
+                    rejectedRows.add(
+                            new BookImportReport.RejectedRow(row.lineNumber(), isbn, errors));
+                }
+                continue;
+            }
+            // A single upsert statement can't touch the same row twice, so the last occurrence
+            // of an ISBN within a batch wins. An ISBN repeated across batches is written, and
+            // counted, once per batch.
+            batch.put(row.book().isbn(), row.book());
+            if (batch.size() >= importProperties.batchSize()) {
+                importedCount += flush(batch, auditor);
+            }
+        }
+        importedCount += flush(batch, auditor);
+        return new BookImportReport(importedCount, rejectedCount, rejectedRows);
+    }
+
+    private List<String> validate(BookImportRow row) {
+        if (row.parseError() != null) {
+            return List.of(row.parseError());
+        }
+        return validator.validate(row.book()).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+    }
+
+    // The suggestion index is patched with the titles and authors each batch replaced, the way
+    // single edits patch it, rather than rebuilt from the whole table.
+    private int flush(Map<String, Book> batch, String auditor) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Book> replacedBooks =
+                repository.upsertAll(List.copyOf(batch.values()), Instant.now(), auditor);
+        replacedBooks.forEach(suggestionIndex::remove);
+        batch.values().forEach(suggestionIndex::add);
+        batch.keySet().forEach(bookCache::evict);
+        int writtenCount = batch.size();
+        batch.clear();
+        return writtenCount;
+    }
+}
@@ -0,0 +1,5 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.util.List;
+
+public record BookPage(List<Book> content, String nextCursor) {}
@@ -1,20 +1,31 @@
 package com.polarbookshop.catalogservice.domain;
 
+import java.util.List;
 import java.util.Optional;
-import org.springframework.data.jdbc.repository.query.Modifying;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface BookRepository extends CrudRepository<Book, Long> {
+public interface BookRepository extends CrudRepository<Book, Long>, CustomBookRepository {
+    @Transactional(readOnly = true)
     Optional<Book> findByIsbn(String isbn);
 
+    @Transactional(readOnly = true)
     boolean existsByIsbn(String isbn);
 
-    @Modifying
-    @Transactional
-    @Query("delete from book where isbn = :isbn")
-    void deleteByIsbn(String isbn);
+    @Transactional(readOnly = true)
+    @Query("select * from book where id > :afterId order by id limit :limit")
+    List<Book> findPageAfter(long afterId, int limit);
+
+    @Transactional(readOnly = true)
+    @Query(
+            """
+            select * from book
+            where search_vector @@ websearch_to_tsquery('english', :query)
+            order by ts_rank(search_vector, websearch_to_tsquery('english', :query)) desc, id
+            limit :limit offset :offset
+            """)
+    List<Book> search(String query, int limit, long offset);
 }
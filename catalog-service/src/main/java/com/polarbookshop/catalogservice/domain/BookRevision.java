@@ -0,0 +1,7 @@
+package com.polarbookshop.catalogservice.domain;
+
+public record BookRevision(Book book, String previousTitle, String previousAuthor) {
+    public boolean created() {
+        return previousTitle == null;
+    }
+}
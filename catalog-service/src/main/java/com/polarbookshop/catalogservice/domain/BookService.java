@@ -1,53 +1,241 @@
 package com.polarbookshop.catalogservice.domain;
 
+import com.polarbookshop.catalogservice.config.ChangeFeedProperties;
+import com.polarbookshop.catalogservice.config.PagingProperties;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.stereotype.Service;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class BookService {
 
     private final BookRepository repository;
+    private final BookCache bookCache;
+    private final BookSuggestionIndex suggestionIndex;
+    private final BookSnapshot bookSnapshot;
+    private final AuditorAware<String> auditorAware;
+    private final PagingProperties pagingProperties;
+    private final ChangeFeedProperties changeFeedProperties;
 
-    public Iterable<Book> viewBookList() {
-        return repository.findAll();
+    public Catalog viewCatalog() {
+        return readOrFallBack(
+                repository::findCatalog,
+                snapshot ->
+                        new Catalog(snapshot.findCatalogState().orElseThrow(), snapshot.findAll()));
     }
 
+    public CatalogState viewCatalogState() {
+        return readOrFallBack(
+                repository::findCatalogState,
+                snapshot -> snapshot.findCatalogState().orElseThrow());
+    }
+
+    public BookPage viewBookPage(String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        long after = decodeCursor(cursor);
+        List<Book> books =
+                readOrFallBack(
+                        () -> repository.findPageAfter(after, pageSize),
+                        snapshot -> snapshot.findPageAfter(after, pageSize));
+        String nextCursor =
+                books.size() == pageSize ? encodeCursor(books.get(books.size() - 1).id()) : null;
+        return new BookPage(books, nextCursor);
+    }
+
+    // Results are ordered by rank rather than id, so the cursor holds an offset.
+    public BookPage searchBooks(String query, String cursor, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return new BookPage(List.of(), null);
+        }
+        int pageSize = pageSize(limit);
+        long offset = decodeCursor(cursor);
+        List<Book> books = repository.search(query, pageSize, offset);
+        String nextCursor = books.size() == pageSize ? encodeCursor(offset + pageSize) : null;
+        return new BookPage(books, nextCursor);
+    }
+
+    public List<BookSuggestion> suggestBooks(String prefix, Integer limit) {
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
+    // The cursor holds the timestamp and ISBN of the last change the consumer has seen.
+    public BookChanges viewBookChanges(String cursor, Integer limit) {
+        ChangeCursor since = decodeChangeCursor(cursor);
+        List<BookChange> changes =
+                repository.findChangesAfter(
+                        since.changedDate(),
+                        since.isbn(),
+                        Instant.now().minus(changeFeedProperties.settleTime()),
+                        pageSize(limit));
+        if (changes.isEmpty()) {
+            return new BookChanges(changes, encodeChangeCursor(since));
+        }
+        BookChange last = changes.get(changes.size() - 1);
+        return new BookChanges(
+                changes, encodeChangeCursor(new ChangeCursor(last.changedDate(), last.isbn())));
+    }
+
+    public void streamBookList(Consumer<Book> action) {
+        repository.streamAll(pagingProperties.streamFetchSize(), action);
+    }
+
+    // Books read from the snapshot aren't cached, so that they're reloaded once the database
+    // is back.
     public Book viewBookDetails(String isbn) {
-        return repository.findByIsbn(isbn).orElseThrow(() -> new BookNotFoundException(isbn));
+        return readOrFallBack(
+                        () -> bookCache.get(isbn, repository::findByIsbn),
+                        snapshot -> snapshot.findByIsbn(isbn))
+                .orElseThrow(() -> new BookNotFoundException(isbn));
     }
 
-    public Book addBookToCatalog(Book book) {
-        if (repository.existsByIsbn(book.isbn())) {
-            throw new BookAlreadyExistsException(book.isbn());
+    // Cached books are served from memory and the others are read with a single query. The
+    // result follows the order of the ISBNs, leaving out the unknown ones.
+    public List<Book> viewBooks(Collection<String> isbns) {
+        List<String> distinctIsbns = isbns.stream().distinct().toList();
+        if (distinctIsbns.size() > pagingProperties.maxLimit()) {
+            throw new TooManyBooksRequestedException(pagingProperties.maxLimit());
         }
-        return repository.save(book);
+        return readOrFallBack(
+                () -> bookCache.getAll(distinctIsbns, repository::findAllByIsbn),
+                snapshot ->
+                        distinctIsbns.stream()
+                                .map(snapshot::findByIsbn)
+                                .flatMap(Optional::stream)
+                                .toList());
+    }
+
+    public Book addBookToCatalog(Book book) {
+        long cacheGeneration = bookCache.generation();
+        Book savedBook =
+                repository
+                        .insertIfAbsent(book, Instant.now(), currentAuditor())
+                        .orElseThrow(() -> new BookAlreadyExistsException(book.isbn()));
+        bookCache.put(savedBook, cacheGeneration);
+        suggestionIndex.add(savedBook);
+        return savedBook;
     }
 
     public void removeBookFromCatalog(String isbn) {
+        Optional<Book> existingBook = bookCache.get(isbn, repository::findByIsbn);
         repository.deleteByIsbn(isbn);
+        bookCache.evict(isbn);
+        existingBook.ifPresent(suggestionIndex::remove);
     }
 
     public Book editBookDetails(String isbn, Book book) {
-        return repository
-                .findByIsbn(isbn)
+        Book bookToUpdate =
+                new Book(
+                        book.id(),
+                        isbn,
+                        book.title(),
+                        book.author(),
+                        book.price(),
+                        book.publisher(),
+                        book.createdDate(),
+                        book.lastModifiedDate(),
+                        book.createdBy(),
+                        book.lastModifiedBy(),
+                        book.version());
+        return editBooks(List.of(bookToUpdate)).get(0);
+    }
+
+    // Books that don't exist yet are created. A book sent with a non-zero version is only
+    // updated if that's still its current version, otherwise none of the edits are applied.
+    public List<Book> editBooks(List<Book> books) {
+        long cacheGeneration = bookCache.generation();
+        return repository.upsertAllVersioned(books, Instant.now(), currentAuditor()).stream()
                 .map(
-                        existingBook -> {
-                            Book bookToUpdate =
-                                    new Book(
-                                            existingBook.id(),
-                                            isbn,
-                                            book.title(),
-                                            book.author(),
-                                            book.price(),
-                                            book.publisher(),
-                                            existingBook.createdDate(),
-                                            existingBook.lastModifiedDate(),
-                                            existingBook.createdBy(),
-                                            existingBook.lastModifiedBy(),
-                                            existingBook.version());
-                            return repository.save(bookToUpdate);
+                        revision -> {
+                            Book savedBook = revision.book();
+                            bookCache.put(savedBook, cacheGeneration);
+                            if (!revision.created()) {
+                                suggestionIndex.remove(
+                                        savedBook.isbn(),
+                                        revision.previousTitle(),
+                                        revision.previousAuthor());
+                            }
+                            suggestionIndex.add(savedBook);
+                            return savedBook;
                         })
-                .orElseGet(() -> addBookToCatalog(book));
+                .toList();
     }
+
+    private <T> T readOrFallBack(Supplier<T> read, Function<BookSnapshot, T> fallback) {
+        try {
+            return read.get();
+        } catch (RuntimeException e) {
+            if (!bookSnapshot.canServe(e)) {
+                throw e;
+            }
+            return fallback.apply(bookSnapshot);
+        }
+    }
+
+    private String currentAuditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+
+    private int pageSize(Integer limit) {
+        return Math.min(
+                limit != null && limit > 0 ? limit : pagingProperties.defaultLimit(),
+                pagingProperties.maxLimit());
+    }
+
+    static String encodeCursor(long position) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(Long.toString(position).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    static String encodeChangeCursor(ChangeCursor cursor) {
+        String value = cursor.changedDate() + " " + cursor.isbn();
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ChangeCursor decodeChangeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new ChangeCursor(Instant.EPOCH, "");
+        }
+        try {
+            String value =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(' ');
+            if (separator < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new ChangeCursor(
+                    Instant.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    record ChangeCursor(Instant changedDate, String isbn) {}
 }
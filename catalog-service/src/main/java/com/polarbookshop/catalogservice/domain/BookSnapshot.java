@@ -0,0 +1,510 @@
+package com.polarbookshop.catalogservice.domain;
+
+import com.polarbookshop.catalogservice.config.SnapshotProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-only copy of the catalog kept in a local file, used to keep serving reads while the
+ * database can't hand out connections.
+ *
+ * <p>The file holds a header, the books in id order, the offset of each book and an index of
+ * fixed-width ISBN keys sorted for binary search. It's memory-mapped, so lookups decode a single
+ * record straight from the page cache. A new snapshot is written next to the current one and
+ * moved over it, which leaves mappings of the previous file valid until they're collected.
+ *
+ * <p>The header also records the database the snapshot was taken from, as a hash of its URL and
+ * user, and a snapshot of another database is never loaded. The default file name includes the
+ * same hash, so instances of different databases on one host don't overwrite each other's file.
+ */
+@Component
+@Profile("!reactive")
+public class BookSnapshot implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookSnapshot.class);
+
+    // Header: magic, book count, indexed ISBN count, offsets of the book offsets and of the
+    // ISBN index, last modification date of the catalog, date the snapshot was taken and source.
+    private static final int MAGIC = 0x50424332; // "PBC2"
+    private static final int BOOK_COUNT = 4;
+    private static final int INDEXED_COUNT = 8;
+    private static final int OFFSETS_OFFSET = 12;
+    private static final int INDEX_OFFSET = 20;
+    private static final int LAST_MODIFIED_DATE = 28;
+    private static final int CREATED_DATE = 40;
+    private static final int SOURCE_ID = 52;
+    private static final int HEADER_SIZE = 60;
+    private static final int ISBN_KEY_SIZE = 13;
+    private static final int INDEX_ENTRY_SIZE = ISBN_KEY_SIZE + Long.BYTES;
+    private static final int FETCH_SIZE = 1000;
+
+    private final BookRepository repository;
+    private final SnapshotProperties properties;
+    private final long sourceId;
+    private final Path path;
+    private final Counter fallbacks;
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService scheduler;
+
+    public BookSnapshot(
+            BookRepository repository,
+            SnapshotProperties properties,
+            DataSourceProperties dataSourceProperties,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.sourceId =
+                sourceId(
+                        dataSourceProperties.determineUrl()
+                                + " as "
+                                + dataSourceProperties.determineUsername());
+        this.path =
+                properties.path() != null
+                        ? properties.path()
+                        : Path.of(
+                                System.getProperty("java.io.tmpdir"),
+                                "catalog-snapshot-"
+                                        + HexFormat.of().toHexDigits(sourceId)
+                                        + ".bin");
+        this.fallbacks =
+                Counter.builder("polar.catalog.snapshot.fallbacks")
+                        .description("Reads served from the snapshot because the pool timed out")
+                        .register(meterRegistry);
+        Gauge.builder("polar.catalog.snapshot.age", this, BookSnapshot::ageSeconds)
+                .baseUnit("seconds")
+                .description("Time since the snapshot served on database outages was taken")
+                .register(meterRegistry);
+        if (properties.enabled()) {
+            load();
+        }
+    }
+
+    /** Whether a failed read should be answered from the snapshot instead. */
+    public boolean canServe(RuntimeException exception) {
+        if (snapshot == null || !isPoolTimeout(exception)) {
+            return false;
+        }
+        fallbacks.increment();
+        return true;
+    }
+
+    public Optional<Book> findByIsbn(String isbn) {
+        Snapshot current = snapshot;
+        byte[] key = isbnKey(isbn);
+        if (current == null || key == null) {
+            return Optional.empty();
+        }
+        int low = 0;
+        int high = current.indexedCount() - 1;
+        byte[] candidate = new byte[ISBN_KEY_SIZE];
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = current.indexOffset() + middle * INDEX_ENTRY_SIZE;
+            current.buffer().get(entry, candidate);
+            int comparison = Arrays.compareUnsigned(candidate, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                long offset = current.buffer().getLong(entry + ISBN_KEY_SIZE);
+                return Optional.of(readBook(current.buffer(), (int) offset));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<Book> findAll() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return List.of();
+        }
+        var books = new ArrayList<Book>(current.bookCount());
+        for (int position = 0; position < current.bookCount(); position++) {
+            books.add(readBook(current.buffer(), current.bookOffset(position)));
+        }
+        return books;
+    }
+
+    /** Same contract as {@link BookRepository#findPageAfter}: books ordered by id. */
+    public List<Book> findPageAfter(long id, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return List.of();
+        }
+        int low = 0;
+        int high = current.bookCount();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (current.buffer().getLong(current.bookOffset(middle)) <= id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int end = Math.min(current.bookCount(), low + limit);
+        var books = new ArrayList<Book>(end - low);
+        for (int position = low; position < end; position++) {
+            books.add(readBook(current.buffer(), current.bookOffset(position)));
+        }
+        return books;
+    }
+
+    public Optional<CatalogState> findCatalogState() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(
+                new CatalogState(
+                        current.bookCount(), readInstant(current.buffer(), LAST_MODIFIED_DATE)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRefresh() {
+        if (!properties.enabled()) {
+            return;
+        }
+        scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("catalog-snapshot").daemon().factory());
+        scheduler.scheduleWithFixedDelay(
+                this::refreshQuietly,
+                0,
+                properties.refreshInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void refresh() throws IOException {
+        Path directory = Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tempFile = Files.createTempFile(directory, "catalog-", ".tmp");
+        try {
+            write(tempFile);
+            Files.move(
+                    tempFile,
+                    path,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        snapshot = map(path);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            LOGGER.warn("Could not refresh the catalog snapshot: {}", e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.isReadable(path)) {
+            return;
+        }
+        try {
+            snapshot = map(path);
+            LOGGER.info("Loaded the catalog snapshot taken at {}", snapshot.createdDate());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring the unreadable catalog snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private double ageSeconds() {
+        Snapshot current = snapshot;
+        return current != null
+                ? Duration.between(current.createdDate(), Instant.now()).toMillis() / 1000.0
+                : Double.NaN;
+    }
+
+    private void write(Path file) throws IOException {
+        Instant createdDate = Instant.now();
+        var writer = new SnapshotWriter(Files.newOutputStream(file));
+        try (writer) {
+            writer.write(new byte[HEADER_SIZE]);
+            repository.streamAll(FETCH_SIZE, writer::writeBook);
+            writer.writeTrailer();
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC)
+                .putInt(writer.offsets.size())
+                .putInt(writer.index.size())
+                .putLong(writer.offsetsOffset)
+                .putLong(writer.indexOffset);
+        putInstant(header, writer.lastModifiedDate);
+        putInstant(header, createdDate);
+        header.putLong(sourceId);
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(header.flip(), 0);
+            channel.force(true);
+        }
+    }
+
+    private Snapshot map(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a catalog snapshot");
+            }
+            if (buffer.getLong(SOURCE_ID) != sourceId) {
+                throw new IOException("Taken from another database");
+            }
+            return new Snapshot(
+                    buffer,
+                    buffer.getInt(BOOK_COUNT),
+                    buffer.getInt(INDEXED_COUNT),
+                    (int) buffer.getLong(OFFSETS_OFFSET),
+                    (int) buffer.getLong(INDEX_OFFSET),
+                    readInstant(buffer, CREATED_DATE));
+        }
+    }
+
+    private static Book readBook(ByteBuffer buffer, int offset) {
+        var reader = new RecordReader(buffer, offset);
+        long id = reader.readLong();
+        int version = reader.readInt();
+        double price = reader.readDouble();
+        Instant createdDate = reader.readInstant();
+        Instant lastModifiedDate = reader.readInstant();
+        return new Book(
+                id,
+                reader.readString(),
+                reader.readString(),
+                reader.readString(),
+                price,
+                reader.readString(),
+                createdDate,
+                lastModifiedDate,
+                reader.readString(),
+                reader.readString(),
+                version);
+    }
+
+    // ISBNs are ASCII and at most 13 characters long; shorter ones are padded with zeros, which
+    // keeps the unsigned byte order of the keys in line with the order of the strings.
+    private static byte[] isbnKey(String isbn) {
+        if (isbn == null || isbn.length() > ISBN_KEY_SIZE) {
+            return null;
+        }
+        byte[] key = new byte[ISBN_KEY_SIZE];
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == 0 || c > 0x7f) {
+                return null;
+            }
+            key[i] = (byte) c;
+        }
+        return key;
+    }
+
+    private static long sourceId(String source) {
+        try {
+            byte[] digest =
+                    MessageDigest.getInstance("SHA-256")
+                            .digest(source.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean isPoolTimeout(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Instants are stored as epoch seconds and nanoseconds, with Long.MIN_VALUE for null.
+    private static void putInstant(ByteBuffer buffer, Instant instant) {
+        buffer.putLong(instant != null ? instant.getEpochSecond() : Long.MIN_VALUE)
+                .putInt(instant != null ? instant.getNano() : 0);
+    }
+
+    private static Instant readInstant(ByteBuffer buffer, int offset) {
+        long seconds = buffer.getLong(offset);
+        return seconds != Long.MIN_VALUE
+                ? Instant.ofEpochSecond(seconds, buffer.getInt(offset + Long.BYTES))
+                : null;
+    }
+
+    private record Snapshot(
+            ByteBuffer buffer,
+            int bookCount,
+            int indexedCount,
+            int offsetsOffset,
+            int indexOffset,
+            Instant createdDate) {
+
+        int bookOffset(int position) {
+            return (int) buffer.getLong(offsetsOffset + position * Long.BYTES);
+        }
+    }
+
+    private record IndexEntry(byte[] key, long offset) {}
+
+    private static class SnapshotWriter extends DataOutputStream {
+
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<IndexEntry> index = new ArrayList<>();
+        private Instant lastModifiedDate;
+        private long offsetsOffset;
+        private long indexOffset;
+
+        SnapshotWriter(OutputStream out) {
+            super(new BufferedOutputStream(out, 1 << 16));
+        }
+
+        void writeBook(Book book) {
+            offsets.add((long) written);
+            byte[] key = isbnKey(book.isbn());
+            if (key != null) {
+                index.add(new IndexEntry(key, written));
+            }
+            if (book.lastModifiedDate() != null
+                    && (lastModifiedDate == null
+                            || book.lastModifiedDate().isAfter(lastModifiedDate))) {
+                lastModifiedDate = book.lastModifiedDate();
+            }
+            try {
+                writeLong(book.id());
+                writeInt(book.version());
+                writeDouble(book.price());
+                writeInstant(book.createdDate());
+                writeInstant(book.lastModifiedDate());
+                writeString(book.isbn());
+                writeString(book.title());
+                writeString(book.author());
+                writeString(book.publisher());
+                writeString(book.createdBy());
+                writeString(book.lastModifiedBy());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void writeTrailer() throws IOException {
+            offsetsOffset = written;
+            for (long offset : offsets) {
+                writeLong(offset);
+            }
+            indexOffset = written;
+            index.sort(Comparator.comparing(IndexEntry::key, Arrays::compareUnsigned));
+            for (IndexEntry entry : index) {
+                write(entry.key());
+                writeLong(entry.offset());
+            }
+            // The count saturates, so the mapped offsets stay below 2 GB.
+            if (written == Integer.MAX_VALUE) {
+                throw new IOException("The catalog snapshot doesn't fit in 2 GB");
+            }
+        }
+
+        private void writeInstant(Instant instant) throws IOException {
+            writeLong(instant != null ? instant.getEpochSecond() : Long.MIN_VALUE);
+            writeInt(instant != null ? instant.getNano() : 0);
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            write(bytes);
+        }
+    }
+
+    private static class RecordReader {
+
+        private final ByteBuffer buffer;
+        private int position;
+
+        RecordReader(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        long readLong() {
+            long value = buffer.getLong(position);
+            position += Long.BYTES;
+            return value;
+        }
+
+        int readInt() {
+            int value = buffer.getInt(position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        double readDouble() {
+            double value = buffer.getDouble(position);
+            position += Double.BYTES;
+            return value;
+        }
+
+        Instant readInstant() {
+            Instant value = BookSnapshot.readInstant(buffer, position);
+            position += Long.BYTES + Integer.BYTES;
+            return value;
+        }
+
+        String readString() {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
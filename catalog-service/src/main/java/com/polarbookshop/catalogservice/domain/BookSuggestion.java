@@ -0,0 +1,3 @@
+package com.polarbookshop.catalogservice.domain;
+
+public record BookSuggestion(String text, String isbn) {}
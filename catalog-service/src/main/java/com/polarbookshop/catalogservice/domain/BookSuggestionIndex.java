@@ -0,0 +1,323 @@
+package com.polarbookshop.catalogservice.domain;
+
+import com.polarbookshop.catalogservice.config.SuggestionProperties;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefix index over the normalized titles and authors of the catalog.
+ *
+ * <p>Each entry is the UTF-8 encoded normalized text, the original text and the ISBN, separated
+ * by zero bytes, so that entries sort by normalized text. The entries are packed back to back in
+ * a single byte array, sorted, with an array of their offsets for binary search, which costs
+ * about four bytes per entry on top of the text itself.
+ *
+ * <p>Changes are collected in a small sorted delta that's merged into new arrays once it grows
+ * past the configured threshold, so reads never lock and the arrays are only copied once every
+ * threshold writes.
+ */
+@Component
+@Profile("!reactive")
+public class BookSuggestionIndex {
+
+    private static final byte SEPARATOR = 0;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final BookRepository repository;
+    private final SuggestionProperties properties;
+    private final Object rebuildLock = new Object();
+
+    private volatile State state = State.of(Entries.EMPTY);
+    // Changes made while a rebuild reads the table, replayed once the rebuilt entries are in.
+    private List<Runnable> changesDuringRebuild;
+
+    public BookSuggestionIndex(BookRepository repository, SuggestionProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+    }
+
+    // The table is read without holding the lock taken by writes, which only wait for the
+    // rebuilt entries to be swapped in.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            var entries = new ArrayList<byte[]>();
+            try {
+                repository.streamAll(
+                        properties.rebuildFetchSize(),
+                        book ->
+                                entries.addAll(
+                                        entriesOf(book.isbn(), book.title(), book.author())));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+                throw e;
+            }
+            replaceEntries(entries);
+        }
+    }
+
+    synchronized void replaceEntries(List<byte[]> entries) {
+        byte[][] sortedEntries = entries.toArray(byte[][]::new);
+        Arrays.sort(sortedEntries, Arrays::compareUnsigned);
+        state = State.of(Entries.pack(Arrays.asList(sortedEntries)));
+        List<Runnable> changes = changesDuringRebuild;
+        changesDuringRebuild = null;
+        if (changes != null) {
+            changes.forEach(Runnable::run);
+        }
+    }
+
+    public synchronized void add(Book book) {
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(() -> add(book));
+        }
+        State current = state;
+        for (byte[] entry : entriesOf(book.isbn(), book.title(), book.author())) {
+            current.removed().remove(entry);
+            if (!current.entries().contains(entry)) {
+                current.added().add(entry);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    public void remove(Book book) {
+        remove(book.isbn(), book.title(), book.author());
+    }
+
+    public synchronized void remove(String isbn, String title, String author) {
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(() -> remove(isbn, title, author));
+        }
+        State current = state;
+        for (byte[] entry : entriesOf(isbn, title, author)) {
+            current.added().remove(entry);
+            if (current.entries().contains(entry)) {
+                current.removed().add(entry);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    public List<BookSuggestion> suggest(String prefix, Integer limit) {
+        String normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty()) {
+            return List.of();
+        }
+        byte[] prefixBytes = normalizedPrefix.getBytes(StandardCharsets.UTF_8);
+        int maxSuggestions =
+                Math.min(
+                        limit != null && limit > 0 ? limit : properties.defaultLimit(),
+                        properties.maxLimit());
+        State current = state;
+        Iterator<byte[]> baseEntries = current.entries().iteratorFrom(prefixBytes);
+        Iterator<byte[]> addedEntries = current.added().tailSet(prefixBytes).iterator();
+        byte[] nextBase = next(baseEntries, prefixBytes);
+        byte[] nextAdded = next(addedEntries, prefixBytes);
+        Map<String, BookSuggestion> suggestions = new LinkedHashMap<>();
+        while (suggestions.size() < maxSuggestions && (nextBase != null || nextAdded != null)) {
+            byte[] entry;
+            if (nextAdded == null
+                    || (nextBase != null && Arrays.compareUnsigned(nextBase, nextAdded) <= 0)) {
+                entry = nextBase;
+                nextBase = next(baseEntries, prefixBytes);
+            } else {
+                entry = nextAdded;
+                nextAdded = next(addedEntries, prefixBytes);
+            }
+            if (!current.removed().contains(entry)) {
+                BookSuggestion suggestion = toSuggestion(entry);
+                suggestions.putIfAbsent(suggestion.text(), suggestion);
+            }
+        }
+        return List.copyOf(suggestions.values());
+    }
+
+    private void compactIfNeeded() {
+        State current = state;
+        if (current.added().size() + current.removed().size() < properties.compactionThreshold()) {
+            return;
+        }
+        var entries = new ArrayList<byte[]>(current.entries().size() + current.added().size());
+        Iterator<byte[]> baseEntries = current.entries().iteratorFrom(new byte[0]);
+        Iterator<byte[]> addedEntries = current.added().iterator();
+        byte[] nextBase = baseEntries.hasNext() ? baseEntries.next() : null;
+        byte[] nextAdded = addedEntries.hasNext() ? addedEntries.next() : null;
+        while (nextBase != null || nextAdded != null) {
+            if (nextAdded == null
+                    || (nextBase != null && Arrays.compareUnsigned(nextBase, nextAdded) <= 0)) {
+                if (!current.removed().contains(nextBase)) {
+                    entries.add(nextBase);
+                }
+                nextBase = baseEntries.hasNext() ? baseEntries.next() : null;
+            } else {
+                entries.add(nextAdded);
+                nextAdded = addedEntries.hasNext() ? addedEntries.next() : null;
+            }
+        }
+        state = State.of(Entries.pack(entries));
+    }
+
+    private static byte[] next(Iterator<byte[]> entries, byte[] prefix) {
+        if (entries.hasNext()) {
+            byte[] entry = entries.next();
+            return startsWith(entry, prefix) ? entry : null;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] entry, byte[] prefix) {
+        return entry.length >= prefix.length
+                && Arrays.equals(entry, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static List<byte[]> entriesOf(String isbn, String title, String author) {
+        var entries = new ArrayList<byte[]>(2);
+        for (String text : new String[] {title, author}) {
+            String normalizedText = normalize(text);
+            if (!normalizedText.isEmpty()) {
+                var entry = new ByteArrayOutputStream();
+                entry.writeBytes(normalizedText.getBytes(StandardCharsets.UTF_8));
+                entry.write(SEPARATOR);
+                entry.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+                entry.write(SEPARATOR);
+                entry.writeBytes(isbn.getBytes(StandardCharsets.UTF_8));
+                entries.add(entry.toByteArray());
+            }
+        }
+        return entries;
+    }
+
+    private static BookSuggestion toSuggestion(byte[] entry) {
+        int textStart = indexOfSeparator(entry, 0) + 1;
+        int isbnStart = indexOfSeparator(entry, textStart) + 1;
+        return new BookSuggestion(
+                new String(entry, textStart, isbnStart - 1 - textStart, StandardCharsets.UTF_8),
+                new String(entry, isbnStart, entry.length - isbnStart, StandardCharsets.UTF_8));
+    }
+
+    private static int indexOfSeparator(byte[] entry, int from) {
+        for (int i = from; i < entry.length; i++) {
+            if (entry[i] == SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutDiacritics =
+                DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.matcher(withoutDiacritics.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private record State(
+            Entries entries, NavigableSet<byte[]> added, NavigableSet<byte[]> removed) {
+        static State of(Entries entries) {
+            return new State(
+                    entries,
+                    new ConcurrentSkipListSet<>(Arrays::compareUnsigned),
+                    new ConcurrentSkipListSet<>(Arrays::compareUnsigned));
+        }
+    }
+
+    /** Sorted entries packed in one array, entry {@code i} spanning offsets i to i + 1. */
+    private record Entries(byte[] data, int[] offsets) {
+
+        static final Entries EMPTY = new Entries(new byte[0], new int[] {0});
+
+        static Entries pack(List<byte[]> sortedEntries) {
+            long size = 0;
+            for (byte[] entry : sortedEntries) {
+                size += entry.length;
+            }
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("The suggestion index doesn't fit in 2 GB");
+            }
+            byte[] data = new byte[(int) size];
+            int[] offsets = new int[sortedEntries.size() + 1];
+            int position = 0;
+            for (int i = 0; i < sortedEntries.size(); i++) {
+                byte[] entry = sortedEntries.get(i);
+                System.arraycopy(entry, 0, data, position, entry.length);
+                position += entry.length;
+                offsets[i + 1] = position;
+            }
+            return new Entries(data, offsets);
+        }
+
+        int size() {
+            return offsets.length - 1;
+        }
+
+        byte[] get(int index) {
+            return Arrays.copyOfRange(data, offsets[index], offsets[index + 1]);
+        }
+
+        boolean contains(byte[] entry) {
+            int index = lowerBound(entry);
+            return index < size() && compareAt(index, entry) == 0;
+        }
+
+        Iterator<byte[]> iteratorFrom(byte[] key) {
+            int start = lowerBound(key);
+            return new Iterator<>() {
+                private int index = start;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size();
+                }
+
+                @Override
+                public byte[] next() {
+                    return get(index++);
+                }
+            };
+        }
+
+        // Index of the first entry that is not less than the key.
+        private int lowerBound(byte[] key) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareAt(middle, key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int compareAt(int index, byte[] key) {
+            return Arrays.compareUnsigned(
+                    data, offsets[index], offsets[index + 1], key, 0, key.length);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.polarbookshop.catalogservice.domain;
+
+public class BookVersionConflictException extends RuntimeException {
+    public BookVersionConflictException(String isbn) {
+        super("The book with ISBN " + isbn + " was modified by someone else.");
+    }
+}
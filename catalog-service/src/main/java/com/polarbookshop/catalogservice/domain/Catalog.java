@@ -0,0 +1,6 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.util.List;
+
+/** All the books in the catalog, with the state they were read in. */
+public record Catalog(CatalogState state, List<Book> books) {}
@@ -0,0 +1,5 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.time.Instant;
+
+public record CatalogState(long bookCount, Instant lastModifiedDate) {}
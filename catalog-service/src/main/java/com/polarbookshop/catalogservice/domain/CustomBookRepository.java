@@ -0,0 +1,35 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface CustomBookRepository {
+    void streamAll(int fetchSize, Consumer<Book> action);
+
+    CatalogState findCatalogState();
+
+    Catalog findCatalog();
+
+    /** Books with the given ISBNs, in no particular order. Unknown ISBNs are left out. */
+    List<Book> findAllByIsbn(Collection<String> isbns);
+
+    Optional<Book> insertIfAbsent(Book book, Instant modifiedDate, String modifiedBy);
+
+    List<BookRevision> upsertAllVersioned(
+            List<Book> books, Instant modifiedDate, String modifiedBy);
+
+    /**
+     * Inserts the books or replaces the ones with the same ISBN. Returns the replaced books as they
+     * were before, in no particular order.
+     */
+    List<Book> upsertAll(List<Book> books, Instant modifiedDate, String modifiedBy);
+
+    /** Deletes the book and leaves a tombstone behind for the change feed. */
+    void deleteByIsbn(String isbn);
+
+    List<BookChange> findChangesAfter(
+            Instant sinceDate, String sinceIsbn, Instant settledBefore, int limit);
+}
@@ -0,0 +1,291 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+class CustomBookRepositoryImpl implements CustomBookRepository {
+
+    private static final String UPSERT_SQL =
+            """
+            insert into book (isbn, title, author, price, publisher, created_date,
+                last_modified_date, created_by, last_modified_by, version)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, 1)
+            on conflict (isbn) do update set
+                title = excluded.title,
+                author = excluded.author,
+                price = excluded.price,
+                publisher = excluded.publisher,
+                last_modified_date = excluded.last_modified_date,
+                last_modified_by = excluded.last_modified_by,
+                version = book.version + 1
+            """;
+
+    // A delete leaves no row behind in book, so the latest tombstone counts as a change too.
+    private static final String CATALOG_STATE_SQL =
+            """
+            select (select count(*) from book) as book_count,
+                greatest(
+                    (select max(last_modified_date) from book),
+                    (select max(deleted_date) from book_tombstone)) as last_modified_date
+            """;
+
+    private static final String INSERT_IF_ABSENT_SQL =
+            """
+            insert into book (isbn, title, author, price, publisher, created_date,
+                last_modified_date, created_by, last_modified_by, version)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, 1)
+            on conflict (isbn) do nothing
+            returning *
+            """;
+
+    // The CTE reads the row as it was before the statement, which gives back the previous
+    // title and author without a second round trip. A version of 0 skips the optimistic check.
+    private static final String VERSIONED_UPSERT_SQL =
+            """
+            with previous as (select title, author from book where isbn = ?)
+            insert into book (isbn, title, author, price, publisher, created_date,
+                last_modified_date, created_by, last_modified_by, version)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, 1)
+            on conflict (isbn) do update set
+                title = excluded.title,
+                author = excluded.author,
+                price = excluded.price,
+                publisher = excluded.publisher,
+                last_modified_date = excluded.last_modified_date,
+                last_modified_by = excluded.last_modified_by,
+                version = book.version + 1
+            where ? = 0 or book.version = ?
+            returning *,
+                (select title from previous) as previous_title,
+                (select author from previous) as previous_author
+            """;
+
+    private static final String DELETE_SQL =
+            """
+            with deleted as (delete from book where isbn = ? returning isbn)
+            insert into book_tombstone (isbn, deleted_date)
+            select isbn, cast(? as timestamp) from deleted
+            on conflict (isbn) do update set deleted_date = excluded.deleted_date
+            """;
+
+    // Each branch is served by its (date, isbn) index, and the row comparison keeps the cursor
+    // stable when several changes share a timestamp.
+    private static final String CHANGES_SQL =
+            """
+            select * from (
+                select isbn, last_modified_date as changed_date, false as deleted, id, title,
+                    author, price, publisher, created_date, last_modified_date, created_by,
+                    last_modified_by, version
+                from book
+                union all
+                select isbn, deleted_date, true, null, null, null, null, null, null, null, null,
+                    null, null
+                from book_tombstone
+            ) changes
+            where (changed_date, isbn) > (?, ?) and changed_date < ?
+            order by changed_date, isbn
+            limit ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The PostgreSQL driver only honours the fetch size inside a transaction, otherwise it
+    // buffers the whole result set in memory.
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(int fetchSize, Consumer<Book> action) {
+        jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement("select * from book order by id");
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                (RowCallbackHandler) resultSet -> action.accept(mapBook(resultSet)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CatalogState findCatalogState() {
+        return queryCatalogState();
+    }
+
+    // Both queries see the same snapshot of the database, so the state describes the books.
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Catalog findCatalog() {
+        CatalogState state = queryCatalogState();
+        List<Book> books =
+                jdbcTemplate.query("select * from book order by id", (rs, rowNum) -> mapBook(rs));
+        return new Catalog(state, books);
+    }
+
+    private CatalogState queryCatalogState() {
+        return jdbcTemplate.queryForObject(
+                CATALOG_STATE_SQL,
+                (rs, rowNum) ->
+                        new CatalogState(
+                                rs.getLong("book_count"),
+                                toInstant(rs.getTimestamp("last_modified_date"))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> findAllByIsbn(Collection<String> isbns) {
+        return queryByIsbn("select * from book where isbn = any(?)", isbns);
+    }
+
+    // The replaced rows are locked until the batch is written, so that a concurrent edit can't
+    // change them in between. Locking in ISBN order keeps overlapping imports from deadlocking.
+    @Override
+    @Transactional
+    public List<Book> upsertAll(List<Book> books, Instant modifiedDate, String modifiedBy) {
+        List<Book> replacedBooks =
+                queryByIsbn(
+                        "select * from book where isbn = any(?) order by isbn for update",
+                        books.stream().map(Book::isbn).toList());
+        Timestamp timestamp = Timestamp.from(modifiedDate);
+        jdbcTemplate.batchUpdate(
+                UPSERT_SQL,
+                books,
+                books.size(),
+                (statement, book) -> {
+                    statement.setString(1, book.isbn());
+                    statement.setString(2, book.title());
+                    statement.setString(3, book.author());
+                    statement.setDouble(4, book.price());
+                    statement.setString(5, book.publisher());
+                    statement.setTimestamp(6, timestamp);
+                    statement.setTimestamp(7, timestamp);
+                    statement.setString(8, modifiedBy);
+                    statement.setString(9, modifiedBy);
+                });
+        return replacedBooks;
+    }
+
+    @Override
+    public Optional<Book> insertIfAbsent(Book book, Instant modifiedDate, String modifiedBy) {
+        Timestamp timestamp = Timestamp.from(modifiedDate);
+        return jdbcTemplate
+                .query(
+                        INSERT_IF_ABSENT_SQL,
+                        (rs, rowNum) -> mapBook(rs),
+                        book.isbn(),
+                        book.title(),
+                        book.author(),
+                        book.price(),
+                        book.publisher(),
+                        timestamp,
+                        timestamp,
+                        modifiedBy,
+                        modifiedBy)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional
+    public List<BookRevision> upsertAllVersioned(
+            List<Book> books, Instant modifiedDate, String modifiedBy) {
+        Timestamp timestamp = Timestamp.from(modifiedDate);
+        var revisions = new ArrayList<BookRevision>(books.size());
+        for (Book book : books) {
+            jdbcTemplate
+                    .query(
+                            VERSIONED_UPSERT_SQL,
+                            (rs, rowNum) ->
+                                    new BookRevision(
+                                            mapBook(rs),
+                                            rs.getString("previous_title"),
+                                            rs.getString("previous_author")),
+                            book.isbn(),
+                            book.isbn(),
+                            book.title(),
+                            book.author(),
+                            book.price(),
+                            book.publisher(),
+                            timestamp,
+                            timestamp,
+                            modifiedBy,
+                            modifiedBy,
+                            book.version(),
+                            book.version())
+                    .stream()
+                    .findFirst()
+                    .ifPresentOrElse(
+                            revisions::add,
+                            () -> {
+                                throw new BookVersionConflictException(book.isbn());
+                            });
+        }
+        return revisions;
+    }
+
+    @Override
+    public void deleteByIsbn(String isbn) {
+        jdbcTemplate.update(DELETE_SQL, isbn, Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookChange> findChangesAfter(
+            Instant sinceDate, String sinceIsbn, Instant settledBefore, int limit) {
+        return jdbcTemplate.query(
+                CHANGES_SQL,
+                (rs, rowNum) -> {
+                    boolean deleted = rs.getBoolean("deleted");
+                    return new BookChange(
+                            rs.getString("isbn"),
+                            deleted,
+                            toInstant(rs.getTimestamp("changed_date")),
+                            deleted ? null : mapBook(rs));
+                },
+                Timestamp.from(sinceDate),
+                sinceIsbn,
+                Timestamp.from(settledBefore),
+                limit);
+    }
+
+    // One array parameter keeps a single prepared statement whatever the number of ISBNs,
+    // where an IN list would be planned again for every length.
+    private List<Book> queryByIsbn(String sql, Collection<String> isbns) {
+        return jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(sql);
+                    statement.setArray(1, connection.createArrayOf("varchar", isbns.toArray()));
+                    return statement;
+                },
+                (rs, rowNum) -> mapBook(rs));
+    }
+
+    private static Book mapBook(ResultSet rs) throws SQLException {
+        return new Book(
+                rs.getLong("id"),
+                rs.getString("isbn"),
+                rs.getString("title"),
+                rs.getString("author"),
+                rs.getDouble("price"),
+                rs.getString("publisher"),
+                toInstant(rs.getTimestamp("created_date")),
+                toInstant(rs.getTimestamp("last_modified_date")),
+                rs.getString("created_by"),
+                rs.getString("last_modified_by"),
+                rs.getInt("version"));
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.polarbookshop.catalogservice.domain;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("The cursor " + cursor + " is not valid.");
+    }
+}
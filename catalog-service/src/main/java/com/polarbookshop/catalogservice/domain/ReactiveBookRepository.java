@@ -0,0 +1,152 @@
+package com.polarbookshop.catalogservice.domain;
+
+import io.r2dbc.spi.Readable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link BookRepository}, used by the {@code reactive} profile.
+ *
+ * <p>It is built on {@link DatabaseClient} rather than a Spring Data R2DBC repository so that
+ * only one Spring Data store is on the classpath and {@link BookRepository} keeps being picked
+ * up without store-specific annotations.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveBookRepository {
+
+    private static final String INSERT_IF_ABSENT_SQL =
+            """
+            insert into book (isbn, title, author, price, publisher, created_date,
+                last_modified_date, created_by, last_modified_by, version)
+            values (:isbn, :title, :author, :price, :publisher, :modifiedDate,
+                :modifiedDate, :modifiedBy, :modifiedBy, 1)
+            on conflict (isbn) do nothing
+            returning *
+            """;
+
+    private static final String VERSIONED_UPSERT_SQL =
+            """
+            insert into book (isbn, title, author, price, publisher, created_date,
+                last_modified_date, created_by, last_modified_by, version)
+            values (:isbn, :title, :author, :price, :publisher, :modifiedDate,
+                :modifiedDate, :modifiedBy, :modifiedBy, 1)
+            on conflict (isbn) do update set
+                title = excluded.title,
+                author = excluded.author,
+                price = excluded.price,
+                publisher = excluded.publisher,
+                last_modified_date = excluded.last_modified_date,
+                last_modified_by = excluded.last_modified_by,
+                version = book.version + 1
+            where :version = 0 or book.version = :version
+            returning *
+            """;
+
+    private static final String DELETE_SQL =
+            """
+            with deleted as (delete from book where isbn = :isbn returning isbn)
+            insert into book_tombstone (isbn, deleted_date)
+            select isbn, cast(:deletedDate as timestamp) from deleted
+            on conflict (isbn) do update set deleted_date = excluded.deleted_date
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<Book> findAll() {
+        return databaseClient
+                .sql("select * from book order by id")
+                .map(ReactiveBookRepository::mapBook)
+                .all();
+    }
+
+    public Mono<Book> findByIsbn(String isbn) {
+        return databaseClient
+                .sql("select * from book where isbn = :isbn")
+                .bind("isbn", isbn)
+                .map(ReactiveBookRepository::mapBook)
+                .one();
+    }
+
+    /** Emits the inserted book, or completes empty when the ISBN is already in the catalog. */
+    public Mono<Book> insertIfAbsent(Book book, Instant modifiedDate, String modifiedBy) {
+        return bindBook(databaseClient.sql(INSERT_IF_ABSENT_SQL), book, modifiedDate, modifiedBy)
+                .map(ReactiveBookRepository::mapBook)
+                .one();
+    }
+
+    /**
+     * Emits the stored book, or completes empty when the stored version no longer matches the
+     * given one. A version of 0 skips the optimistic check.
+     */
+    public Mono<Book> upsertVersioned(Book book, Instant modifiedDate, String modifiedBy) {
+        return bindBook(databaseClient.sql(VERSIONED_UPSERT_SQL), book, modifiedDate, modifiedBy)
+                .bind("version", book.version())
+                .map(ReactiveBookRepository::mapBook)
+                .one();
+    }
+
+    /** Deletes the book and leaves a tombstone behind for the change feed. */
+    public Mono<Void> deleteByIsbn(String isbn) {
+        return databaseClient
+                .sql(DELETE_SQL)
+                .bind("isbn", isbn)
+                .bind("deletedDate", toLocalDateTime(Instant.now()))
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindBook(
+            DatabaseClient.GenericExecuteSpec spec,
+            Book book,
+            Instant modifiedDate,
+            String modifiedBy) {
+        spec =
+                spec.bind("isbn", book.isbn())
+                        .bind("title", book.title())
+                        .bind("author", book.author())
+                        .bind("price", book.price())
+                        .bind("modifiedDate", toLocalDateTime(modifiedDate));
+        spec =
+                book.publisher() != null
+                        ? spec.bind("publisher", book.publisher())
+                        : spec.bindNull("publisher", String.class);
+        return modifiedBy != null
+                ? spec.bind("modifiedBy", modifiedBy)
+                : spec.bindNull("modifiedBy", String.class);
+    }
+
+    // The columns are "timestamp" without a time zone, which the JDBC stack reads and writes
+    // in the JVM default zone as well.
+    private static Book mapBook(Readable row) {
+        return new Book(
+                row.get("id", Long.class),
+                row.get("isbn", String.class),
+                row.get("title", String.class),
+                row.get("author", String.class),
+                row.get("price", Double.class),
+                row.get("publisher", String.class),
+                toInstant(row.get("created_date", LocalDateTime.class)),
+                toInstant(row.get("last_modified_date", LocalDateTime.class)),
+                row.get("created_by", String.class),
+                row.get("last_modified_by", String.class),
+                row.get("version", Integer.class));
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+}
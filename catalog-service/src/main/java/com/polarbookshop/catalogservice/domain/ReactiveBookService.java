@@ -0,0 +1,68 @@
+package com.polarbookshop.catalogservice.domain;
+
+import java.time.Instant;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.ReactiveAuditorAware;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveBookService {
+
+    private final ReactiveBookRepository repository;
+    private final ReactiveAuditorAware<String> auditorAware;
+
+    public Flux<Book> viewBookList() {
+        return repository.findAll();
+    }
+
+    public Mono<Book> viewBookDetails(String isbn) {
+        return repository
+                .findByIsbn(isbn)
+                .switchIfEmpty(Mono.error(() -> new BookNotFoundException(isbn)));
+    }
+
+    public Mono<Book> addBookToCatalog(Book book) {
+        return currentAuditor()
+                .flatMap(
+                        auditor ->
+                                repository.insertIfAbsent(
+                                        book, Instant.now(), auditor.orElse(null)))
+                .switchIfEmpty(Mono.error(() -> new BookAlreadyExistsException(book.isbn())));
+    }
+
+    public Mono<Void> removeBookFromCatalog(String isbn) {
+        return repository.deleteByIsbn(isbn);
+    }
+
+    public Mono<Book> editBookDetails(String isbn, Book book) {
+        var bookToUpdate =
+                new Book(
+                        null,
+                        isbn,
+                        book.title(),
+                        book.author(),
+                        book.price(),
+                        book.publisher(),
+                        null,
+                        null,
+                        null,
+                        null,
+                        book.version());
+        return currentAuditor()
+                .flatMap(
+                        auditor ->
+                                repository.upsertVersioned(
+                                        bookToUpdate, Instant.now(), auditor.orElse(null)))
+                .switchIfEmpty(Mono.error(() -> new BookVersionConflictException(isbn)));
+    }
+
+    private Mono<Optional<String>> currentAuditor() {
+        return auditorAware.getCurrentAuditor().map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+}
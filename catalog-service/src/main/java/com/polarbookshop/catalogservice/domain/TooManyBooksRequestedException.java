@@ -0,0 +1,7 @@
+package com.polarbookshop.catalogservice.domain;
+
+public class TooManyBooksRequestedException extends RuntimeException {
+    public TooManyBooksRequestedException(int maxBooks) {
+        super("At most " + maxBooks + " books can be fetched at once.");
+    }
+}
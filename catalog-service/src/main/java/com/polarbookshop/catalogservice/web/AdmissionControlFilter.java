@@ -0,0 +1,176 @@
+package com.polarbookshop.catalogservice.web;
+
+import com.polarbookshop.catalogservice.config.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps the number of requests in progress and sheds load once too many are waiting.
+ *
+ * <p>Requests beyond the concurrency limit wait in a bounded queue for at most {@code maxWait}.
+ * A request that finds the queue full, or that waits too long, gets a 503 with a Retry-After
+ * header straight away instead of tying up a Tomcat thread until the pool gives up on it.
+ *
+ * <p>The slots stand for database connections, so requests that {@code servedWithoutDatabase}
+ * accepts skip admission control. A streamed book list holds its slot until it has been written
+ * in full, however slowly the client reads it.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String OVERLOADED_MESSAGE = "The catalog is overloaded, retry later.";
+
+    private final Semaphore slots;
+    private final int queueCapacity;
+    private final Duration maxWait;
+    private final String retryAfterSeconds;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+    private final Predicate<HttpServletRequest> servedWithoutDatabase;
+
+    public AdmissionControlFilter(
+            int maxConcurrent,
+            int queueCapacity,
+            Duration maxWait,
+            Duration retryAfter,
+            Predicate<HttpServletRequest> servedWithoutDatabase,
+            MeterRegistry meterRegistry) {
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.queueCapacity = queueCapacity;
+        this.maxWait = maxWait;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+        Gauge.builder("polar.admission.queue.depth", queued, AtomicInteger::get)
+                .description("Requests waiting for an admission slot")
+                .register(meterRegistry);
+        Gauge.builder("polar.admission.active", slots, s -> maxConcurrent - s.availablePermits())
+                .description("Requests holding an admission slot")
+                .register(meterRegistry);
+        this.waitTimer =
+                Timer.builder("polar.admission.wait")
+                        .description("Time queued requests waited for an admission slot")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+        this.queueFullRejections = rejectionCounter("queue_full", meterRegistry);
+        this.timeoutRejections = rejectionCounter("timeout", meterRegistry);
+        this.servedWithoutDatabase = servedWithoutDatabase;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return servedWithoutDatabase.test(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!slots.tryAcquire() && !awaitSlot(response)) {
+            return;
+        }
+        var released = new AtomicBoolean();
+        Runnable release =
+                () -> {
+                    if (released.compareAndSet(false, true)) {
+                        slots.release();
+                    }
+                };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private boolean awaitSlot(HttpServletResponse response) throws IOException {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            queueFullRejections.increment();
+            reject(response);
+            return false;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(waitNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queued.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            timeoutRejections.increment();
+            reject(response);
+        }
+        return acquired;
+    }
+
+    // A request never waits past its own deadline, by then the caller has stopped waiting.
+    private long waitNanos() {
+        return RequestDeadline.current()
+                .map(deadline -> Math.min(maxWait.toNanos(), deadline.remaining().toNanos()))
+                .orElse(maxWait.toNanos());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(OVERLOADED_MESSAGE);
+    }
+
+    private static Counter rejectionCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("polar.admission.rejections")
+                .description("Requests turned away by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
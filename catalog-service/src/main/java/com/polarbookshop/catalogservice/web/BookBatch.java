@@ -0,0 +1,9 @@
+package com.polarbookshop.catalogservice.web;
+
+import com.polarbookshop.catalogservice.domain.Book;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public record BookBatch(
+        @NotEmpty(message = "At least one book must be defined.") List<@Valid Book> books) {}
@@ -1,33 +1,134 @@
 package com.polarbookshop.catalogservice.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.polarbookshop.catalogservice.config.RequestDeadline;
 import com.polarbookshop.catalogservice.domain.Book;
+import com.polarbookshop.catalogservice.domain.BookChanges;
+import com.polarbookshop.catalogservice.domain.BookImportReport;
+import com.polarbookshop.catalogservice.domain.BookImportService;
+import com.polarbookshop.catalogservice.domain.BookPage;
 import com.polarbookshop.catalogservice.domain.BookService;
+import com.polarbookshop.catalogservice.domain.BookSuggestion;
+import com.polarbookshop.catalogservice.domain.Catalog;
+import com.polarbookshop.catalogservice.domain.CatalogState;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("books")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class BookController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BookController.class);
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookImportReader bookImportReader;
+    private final ObjectMapper objectMapper;
 
+    // The cheap state query answers unchanged catalogs. Otherwise the validators set by the
+    // check are replaced with the state read along with the books, which describes the body.
     @GetMapping
-    public Iterable<Book> get() {
+    public List<Book> get(WebRequest request, HttpServletResponse response) {
         LOGGER.info("Fetching the list of books in the catalog");
-        return bookService.viewBookList();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        CatalogState catalogState = bookService.viewCatalogState();
+        if (request.checkNotModified(
+                catalogETag(catalogState), toEpochMilli(catalogState.lastModifiedDate()))) {
+            return null;
+        }
+        Catalog catalog = bookService.viewCatalog();
+        response.setHeader(HttpHeaders.ETAG, catalogETag(catalog.state()));
+        if (catalog.state().lastModifiedDate() != null) {
+            response.setDateHeader(
+                    HttpHeaders.LAST_MODIFIED, toEpochMilli(catalog.state().lastModifiedDate()));
+        }
+        return catalog.books();
+    }
+
+    @GetMapping(params = "isbn")
+    public List<Book> getAllByIsbn(@RequestParam("isbn") List<String> isbns) {
+        LOGGER.info("Fetching {} books from the catalog by ISBN", isbns.size());
+        return bookService.viewBooks(isbns);
+    }
+
+    @GetMapping(params = "limit")
+    public BookPage getPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam("limit") Integer limit) {
+        LOGGER.info("Fetching a page of {} books from the catalog", limit);
+        return bookService.viewBookPage(cursor, limit);
+    }
+
+    @GetMapping("search")
+    public BookPage search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        LOGGER.info("Searching the catalog for books matching '{}'", query);
+        return bookService.searchBooks(query, cursor, limit);
+    }
+
+    @GetMapping("suggest")
+    public List<BookSuggestion> suggest(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return bookService.suggestBooks(prefix, limit);
+    }
+
+    @GetMapping("changes")
+    public BookChanges changes(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        LOGGER.info("Fetching the catalog changes since cursor '{}'", since);
+        return bookService.viewBookChanges(since, limit);
+    }
+
+    // The body is written on another thread, which is bound to the deadline of the request so
+    // that the caller's budget also bounds the streaming query. A write to a disconnected client
+    // fails, and the exception stops the query.
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody stream() {
+        LOGGER.info("Streaming the list of books in the catalog");
+        Optional<RequestDeadline> deadline = RequestDeadline.current();
+        return outputStream -> {
+            if (deadline.isPresent()) {
+                deadline.get().run(() -> writeBookList(outputStream));
+            } else {
+                writeBookList(outputStream);
+            }
+        };
     }
 
     @GetMapping("{isbn}")
-    public Book getByIsbn(@PathVariable("isbn") String isbn) {
+    public Book getByIsbn(
+            @PathVariable("isbn") String isbn, WebRequest request, HttpServletResponse response) {
         LOGGER.info("Fetching the book with ISBN {} from the catalog", isbn);
-        return bookService.viewBookDetails(isbn);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        Book book = bookService.viewBookDetails(isbn);
+        if (request.checkNotModified(bookETag(book), toEpochMilli(book.lastModifiedDate()))) {
+            return null;
+        }
+        return book;
     }
 
     @PostMapping
@@ -37,16 +138,67 @@ public class BookController {
         return bookService.addBookToCatalog(book);
     }
 
+    @PostMapping(
+            value = "import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, BookImportReader.TEXT_CSV_VALUE})
+    public BookImportReport importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body)
+            throws IOException {
+        LOGGER.info("Importing books into the catalog from {}", contentType);
+        try (var rows = bookImportReader.read(body, contentType)) {
+            return bookImportService.importBooks(rows);
+        }
+    }
+
     @PutMapping("{isbn}")
     public Book edit(@PathVariable String isbn, @Valid @RequestBody Book book) {
         LOGGER.info("Updating book with ISBN {}", isbn);
         return bookService.editBookDetails(isbn, book);
     }
 
+    @PutMapping
+    public List<Book> editAll(@Valid @RequestBody BookBatch batch) {
+        LOGGER.info("Updating {} books in one transaction", batch.books().size());
+        return bookService.editBooks(batch.books());
+    }
+
     @DeleteMapping("{isbn}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable("isbn") String isbn) {
         LOGGER.info("Deleting book with ISBN {}", isbn);
         bookService.removeBookFromCatalog(isbn);
     }
+
+    private void writeBookList(OutputStream outputStream) throws IOException {
+        try (SequenceWriter writer =
+                objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)) {
+            bookService.streamBookList(
+                    book -> {
+                        try {
+                            writer.write(book);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        }
+    }
+
+    // The tags are weak since JSON, CBOR and Smile bodies of the same version, compressed or
+    // not, differ byte for byte while being equivalent.
+    private static String bookETag(Book book) {
+        return weakETag(book.version() + "-" + toEpochMilli(book.lastModifiedDate()));
+    }
+
+    private static String catalogETag(CatalogState catalogState) {
+        return weakETag(
+                catalogState.bookCount() + "-" + toEpochMilli(catalogState.lastModifiedDate()));
+    }
+
+    private static String weakETag(String tag) {
+        return "W/\"" + tag + "\"";
+    }
+
+    private static long toEpochMilli(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : -1;
+    }
 }
@@ -2,14 +2,20 @@ package com.polarbookshop.catalogservice.web;
 
 import com.polarbookshop.catalogservice.domain.BookAlreadyExistsException;
 import com.polarbookshop.catalogservice.domain.BookNotFoundException;
+import com.polarbookshop.catalogservice.domain.BookVersionConflictException;
+import com.polarbookshop.catalogservice.domain.InvalidCursorException;
+import com.polarbookshop.catalogservice.domain.TooManyBooksRequestedException;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 @RestControllerAdvice
 public class BookControllerAdvice {
@@ -26,11 +32,45 @@ public class BookControllerAdvice {
         return e.getMessage();
     }
 
+    @ExceptionHandler(BookVersionConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String bookVersionConflictHandler(BookVersionConflictException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String invalidCursorHandler(InvalidCursorException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(TooManyBooksRequestedException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String tooManyBooksRequestedHandler(TooManyBooksRequestedException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public String queryTimeoutHandler(QueryTimeoutException e) {
+        return "The request deadline passed before the catalog could answer.";
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> handleValidationException(MethodArgumentNotValidException e) {
+        return fieldErrorMessages(e.getBindingResult());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleReactiveValidationException(WebExchangeBindException e) {
+        return fieldErrorMessages(e.getBindingResult());
+    }
+
+    private static Map<String, String> fieldErrorMessages(BindingResult bindingResult) {
         Map<String, String> messages = new HashMap<>();
-        e.getBindingResult()
+        bindingResult
                 .getAllErrors()
                 .forEach(
                         error -> {
@@ -0,0 +1,112 @@
+package com.polarbookshop.catalogservice.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.polarbookshop.catalogservice.domain.Book;
+import com.polarbookshop.catalogservice.domain.BookImportRow;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!reactive")
+public class BookImportReader {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ObjectReader jsonReader;
+    private final CsvMapper csvMapper = CsvMapper.builder().findAndAddModules().build();
+
+    public BookImportReader(ObjectMapper objectMapper) {
+        this.jsonReader = objectMapper.readerFor(Book.class);
+    }
+
+    public Stream<BookImportRow> read(InputStream inputStream, MediaType contentType)
+            throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        if (MediaType.valueOf(TEXT_CSV_VALUE).isCompatibleWith(contentType)) {
+            return readCsv(reader);
+        }
+        return readLines(reader, jsonReader);
+    }
+
+    // The first record is the header, so columns can come in any order and unknown ones are
+    // ignored. Quoted fields may hold commas and line breaks, so records are read by the CSV
+    // parser rather than line by line.
+    private Stream<BookImportRow> readCsv(BufferedReader reader) throws IOException {
+        MappingIterator<Book> records =
+                csvMapper
+                        .readerFor(Book.class)
+                        .with(CsvSchema.emptySchema().withHeader())
+                        .withFeatures(
+                                CsvParser.Feature.SKIP_EMPTY_LINES, CsvParser.Feature.TRIM_SPACES)
+                        .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                        .readValues(reader);
+        var rows =
+                new Iterator<BookImportRow>() {
+                    @Override
+                    public boolean hasNext() {
+                        return records.hasNext();
+                    }
+
+                    @Override
+                    public BookImportRow next() {
+                        long lineNumber = records.getParser().currentLocation().getLineNr();
+                        try {
+                            return BookImportRow.parsed(lineNumber, records.nextValue());
+                        } catch (IOException e) {
+                            return BookImportRow.unparsable(
+                                    lineNumber, "The row could not be parsed.");
+                        }
+                    }
+                };
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+                .onClose(() -> closeQuietly(records));
+    }
+
+    private static void closeQuietly(MappingIterator<?> records) {
+        try {
+            records.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Stream<BookImportRow> readLines(BufferedReader reader, ObjectReader rowReader) {
+        var lineNumber = new AtomicLong();
+        return reader.lines()
+                .map(line -> parse(rowReader, lineNumber.incrementAndGet(), line))
+                .filter(Objects::nonNull);
+    }
+
+    private static BookImportRow parse(ObjectReader rowReader, long lineNumber, String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return BookImportRow.parsed(lineNumber, rowReader.readValue(line));
+        } catch (JsonProcessingException e) {
+            return BookImportRow.unparsable(lineNumber, "The row could not be parsed.");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.polarbookshop.catalogservice.web;
+
+import com.polarbookshop.catalogservice.config.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Binds the budget sent in the {@value RequestDeadline#HEADER} header to the request, capped at
+ * {@code maxTimeout}. Requests without the header get no deadline.
+ *
+ * <p>A request that arrives with its budget already spent is answered with a 504 straight away,
+ * since nobody is waiting for the result.
+ *
+ * <p>The deadline is bound to the request thread. Streamed book lists, {@code GET /books} with
+ * {@code Accept: application/x-ndjson}, are written on another thread that {@link
+ * BookController} binds to the same deadline.
+ *
+ * <p>A client that disconnects isn't noticed while its query runs. A request without the header
+ * therefore runs its queries to completion, except for a streamed list, which stops at the first
+ * write that fails.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private static final String EXPIRED_MESSAGE = "The request deadline has already passed.";
+
+    private final Duration maxTimeout;
+    private final Counter expiredOnArrival;
+
+    public DeadlineFilter(Duration maxTimeout, MeterRegistry meterRegistry) {
+        this.maxTimeout = maxTimeout;
+        this.expiredOnArrival =
+                Counter.builder("polar.deadline.exceeded")
+                        .description(
+                                "Requests whose deadline passed while the catalog worked on them")
+                        .tag("stage", "arrival")
+                        .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Duration timeout = parseTimeout(request.getHeader(RequestDeadline.HEADER));
+        if (timeout == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            expiredOnArrival.increment();
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(EXPIRED_MESSAGE);
+            return;
+        }
+        RequestDeadline deadline =
+                RequestDeadline.after(timeout.compareTo(maxTimeout) < 0 ? timeout : maxTimeout);
+        deadline.<ServletException, IOException>run(() -> filterChain.doFilter(request, response));
+    }
+
+    // A malformed budget is ignored rather than failing a request that would otherwise succeed.
+    private static Duration parseTimeout(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofMillis(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
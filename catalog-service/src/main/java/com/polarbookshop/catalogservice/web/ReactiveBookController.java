@@ -0,0 +1,56 @@
+package com.polarbookshop.catalogservice.web;
+
+import com.polarbookshop.catalogservice.domain.Book;
+import com.polarbookshop.catalogservice.domain.ReactiveBookService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("books")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveBookController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveBookController.class);
+
+    private final ReactiveBookService bookService;
+
+    @GetMapping
+    public Flux<Book> get() {
+        LOGGER.info("Fetching the list of books in the catalog");
+        return bookService.viewBookList();
+    }
+
+    @GetMapping("{isbn}")
+    public Mono<Book> getByIsbn(@PathVariable("isbn") String isbn) {
+        LOGGER.info("Fetching the book with ISBN {} from the catalog", isbn);
+        return bookService.viewBookDetails(isbn);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Book> add(@Valid @RequestBody Book book) {
+        LOGGER.info("Adding a new book to the catalog with ISBN {}", book.isbn());
+        return bookService.addBookToCatalog(book);
+    }
+
+    @PutMapping("{isbn}")
+    public Mono<Book> edit(@PathVariable String isbn, @Valid @RequestBody Book book) {
+        LOGGER.info("Updating book with ISBN {}", isbn);
+        return bookService.editBookDetails(isbn, book);
+    }
+
+    @DeleteMapping("{isbn}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable("isbn") String isbn) {
+        LOGGER.info("Deleting book with ISBN {}", isbn);
+        return bookService.removeBookFromCatalog(isbn);
+    }
+}
@@ -0,0 +1,8 @@
+alter table book
+add column search_vector tsvector generated always as (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(author, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(publisher, '')), 'C')
+) stored;
+
+create index book_search_vector_idx on book using gin (search_vector);
@@ -0,0 +1,8 @@
+create index book_last_modified_date_isbn_idx on book (last_modified_date, isbn);
+
+create TABLE book_tombstone (
+isbn    varchar(255) PRIMARY KEY NOT NULL,
+deleted_date    timestamp NOT NULL
+);
+
+create index book_tombstone_deleted_date_isbn_idx on book_tombstone (deleted_date, isbn);
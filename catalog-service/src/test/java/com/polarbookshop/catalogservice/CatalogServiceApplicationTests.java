@@ -81,7 +81,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenPostRequestWithEmployeeRoleThenBookCreated() {
-        Book book = Book.of("1212121212", "Book", "Author of this book", 12.3, "publisher");
+        Book book = Book.of("1212121228", "Book", "Author of this book", 12.3, "publisher");
         webTestClient
                 .post()
                 .uri("/books")
@@ -100,7 +100,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenPostRequestWithCustomerRoleThenREturn403() {
-        Book book = Book.of("1212121212", "Book", "Author of this book", 12.3, "publisher");
+        Book book = Book.of("1212121228", "Book", "Author of this book", 12.3, "publisher");
         webTestClient
                 .post()
                 .uri("/books")
@@ -113,7 +113,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenPostRequestUnauthenticatedThenReturn401() {
-        Book book = Book.of("1212121212", "Book", "Author of this book", 12.3, "publisher");
+        Book book = Book.of("1212121228", "Book", "Author of this book", 12.3, "publisher");
         webTestClient
                 .post()
                 .uri("/books")
@@ -125,7 +125,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenGetRequestWithEmployeeRoleThenBookReturned() {
-        String isbn = "1313231313";
+        String isbn = "1313231312";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
         Book createdBook = addBook(book);
 
@@ -159,7 +159,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenGetRequestWithCustomerRoleThenBookReturned() {
-        String isbn = "1313131313";
+        String isbn = "1313131318";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
         Book createdBook = addBook(book);
 
@@ -178,7 +178,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenGetRequestUnauthenticatedThenBookReturned() {
-        String isbn = "1313131323";
+        String isbn = "1313131326";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
         Book createdBook = addBook(book);
 
@@ -196,7 +196,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenPutRequestWithEmployeeRoleThenBookUpdated() {
-        String isbn = "1414141444";
+        String isbn = "1414141440";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
         Book createdBook = addBook(book);
 
@@ -230,7 +230,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenPutRequestWithCustomerRoleThenReturn403() {
-        String isbn = "1414141454";
+        String isbn = "1414141459";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
         Book createdBook = addBook(book);
 
@@ -253,7 +253,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenPutRequestUnauthenticatedThenReturn401() {
-        String isbn = "1414141464";
+        String isbn = "1414141467";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
         Book createdBook = addBook(book);
 
@@ -275,7 +275,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenDeleteRequestWithEmployeeRoleThenBookDeleted() {
-        String isbn = "1515151545";
+        String isbn = "1515151549";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
         addBook(book);
 
@@ -303,7 +303,7 @@ class CatalogServiceApplicationTests {
 
     @Test
     void whenDeleteRequestWithCustomerRoleThenReturn403() {
-        String isbn = "1515151555";
+        String isbn = "1515151557";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
         addBook(book);
 
@@ -0,0 +1,104 @@
+package com.polarbookshop.catalogservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.polarbookshop.catalogservice.CatalogServiceApplication;
+import com.polarbookshop.catalogservice.domain.Book;
+import com.polarbookshop.catalogservice.domain.BookRepository;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Compares HTTP/1.1 with cleartext HTTP/2 between a Reactor Netty client, configured like the
+ * gateway and {@code BookClient}, and Tomcat. Reports the number of TCP connections the client
+ * opened next to the latency percentiles. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class Http2BenchmarkTests {
+
+    private static final String ISBN = "1234567806";
+    private static final int REQUESTS = 5_000;
+    private static final int CONCURRENCY = 200;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:14.4");
+
+    @ParameterizedTest(name = "protocol: {0}")
+    @EnumSource(
+            value = HttpProtocol.class,
+            names = {"HTTP11", "H2C"})
+    void fetchBookOverHttp11AndH2c(HttpProtocol protocol) {
+        try (var context =
+                new SpringApplicationBuilder(CatalogServiceApplication.class)
+                        .properties(
+                                "server.port=0",
+                                "server.http2.enabled=true",
+                                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                                "spring.datasource.username=" + postgres.getUsername(),
+                                "spring.datasource.password=" + postgres.getPassword())
+                        .run()) {
+            var repository = context.getBean(BookRepository.class);
+            if (!repository.existsByIsbn(ISBN)) {
+                repository.save(Book.of(ISBN, "Northern Lights", "Lyra Silvester", 9.9, "p"));
+            }
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", int.class);
+            var connections = new AtomicInteger();
+            var connectionProvider = ConnectionProvider.create("benchmark", CONCURRENCY);
+            var httpClient =
+                    HttpClient.create(connectionProvider)
+                            .protocol(protocol)
+                            .baseUrl("http://localhost:" + port)
+                            .doOnChannelInit(
+                                    (observer, channel, address) -> connections.incrementAndGet());
+
+            var latencies = new long[REQUESTS];
+            var errors = new AtomicInteger();
+            long start = System.nanoTime();
+            Flux.range(0, REQUESTS)
+                    .flatMap(
+                            index ->
+                                    Mono.defer(() -> fetchBook(httpClient, latencies, index))
+                                            .filter(status -> status < 400)
+                                            .switchIfEmpty(
+                                                    Mono.fromRunnable(errors::incrementAndGet))
+                                            .onErrorResume(
+                                                    e -> {
+                                                        errors.incrementAndGet();
+                                                        return Mono.empty();
+                                                    }),
+                            CONCURRENCY)
+                    .blockLast();
+            var result =
+                    LoadGenerator.summarize(
+                            latencies, errors.get(), Duration.ofNanos(System.nanoTime() - start));
+
+            System.out.printf(
+                    "%s connections=%d%n", result.format(protocol.name()), connections.get());
+            connectionProvider.disposeLater().block();
+            assertThat(result.requests()).isEqualTo(REQUESTS);
+        }
+    }
+
+    private static Mono<Integer> fetchBook(HttpClient httpClient, long[] latencies, int index) {
+        long requestStart = System.nanoTime();
+        return httpClient
+                .get()
+                .uri("/books/" + ISBN)
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .doFinally(signal -> latencies[index] = System.nanoTime() - requestStart);
+    }
+}
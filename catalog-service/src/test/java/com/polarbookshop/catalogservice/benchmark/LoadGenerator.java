@@ -0,0 +1,90 @@
+package com.polarbookshop.catalogservice.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Fires a fixed number of GET requests with bounded concurrency and records their latency. */
+class LoadGenerator {
+
+    private final HttpClient httpClient;
+
+    LoadGenerator(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    LoadGenerator() {
+        this(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build());
+    }
+
+    LoadResult run(URI uri, int requests, int concurrency) throws InterruptedException {
+        var latencies = new long[requests];
+        var errors = new AtomicInteger();
+        var inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                inFlight.acquire();
+                executor.submit(
+                        () -> {
+                            long requestStart = System.nanoTime();
+                            try {
+                                var request =
+                                        HttpRequest.newBuilder(uri)
+                                                .timeout(Duration.ofSeconds(30))
+                                                .build();
+                                var response =
+                                        httpClient.send(
+                                                request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() >= 400) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            } finally {
+                                latencies[index] = System.nanoTime() - requestStart;
+                                inFlight.release();
+                            }
+                        });
+            }
+        }
+        return summarize(latencies, errors.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    static LoadResult summarize(long[] latencies, int errors, Duration elapsed) {
+        int requests = latencies.length;
+        Arrays.sort(latencies);
+        return new LoadResult(
+                requests,
+                errors,
+                requests / (elapsed.toNanos() / 1_000_000_000.0),
+                Duration.ofNanos(latencies[requests / 2]),
+                Duration.ofNanos(latencies[(int) Math.ceil(requests * 0.99) - 1]));
+    }
+
+    record LoadResult(
+            int requests,
+            int errors,
+            double throughputPerSecond,
+            Duration p50Latency,
+            Duration p99Latency) {
+
+        String format(String label) {
+            return String.format(
+                    "%s: requests=%d errors=%d throughput=%.1f/s p50=%dms p99=%dms",
+                    label,
+                    requests,
+                    errors,
+                    throughputPerSecond,
+                    p50Latency.toMillis(),
+                    p99Latency.toMillis());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.polarbookshop.catalogservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.polarbookshop.catalogservice.CatalogServiceApplication;
+import com.polarbookshop.catalogservice.domain.Book;
+import com.polarbookshop.catalogservice.domain.BookRepository;
+import com.polarbookshop.catalogservice.domain.ReactiveBookRepository;
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.ToxiproxyClient;
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.ToxiproxyContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Compares request handling on platform threads, virtual threads and the reactive stack while
+ * every database round trip is slowed down by Toxiproxy. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class ThreadingModelBenchmarkTests {
+
+    private static final String ISBN = "1234567891";
+    private static final int REQUESTS = 5_000;
+    private static final int CONCURRENCY = 200;
+    private static final int DATABASE_LATENCY_MS = 50;
+
+    private static final Network network = Network.newNetwork();
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:14.4")
+                    .withNetwork(network)
+                    .withNetworkAliases("postgres");
+
+    @Container
+    private static final ToxiproxyContainer toxiproxy =
+            new ToxiproxyContainer("ghcr.io/shopify/toxiproxy:2.5.0").withNetwork(network);
+
+    private static String jdbcUrl;
+    private static String r2dbcUrl;
+
+    @BeforeAll
+    static void injectDatabaseLatency() throws IOException {
+        var client = new ToxiproxyClient(toxiproxy.getHost(), toxiproxy.getControlPort());
+        Proxy proxy = client.createProxy("postgres", "0.0.0.0:8666", "postgres:5432");
+        proxy.toxics().latency("latency", ToxicDirection.DOWNSTREAM, DATABASE_LATENCY_MS);
+        jdbcUrl =
+                "jdbc:postgresql://%s:%d/%s"
+                        .formatted(
+                                toxiproxy.getHost(),
+                                toxiproxy.getMappedPort(8666),
+                                postgres.getDatabaseName());
+        r2dbcUrl = jdbcUrl.replaceFirst("^jdbc:", "r2dbc:");
+    }
+
+    @ParameterizedTest(name = "virtual threads enabled: {0}")
+    @ValueSource(booleans = {false, true})
+    void fetchBookUnderDatabaseLatency(boolean virtualThreads) throws InterruptedException {
+        try (var context =
+                new SpringApplicationBuilder(CatalogServiceApplication.class)
+                        .properties(
+                                "server.port=0",
+                                "spring.datasource.url=" + jdbcUrl,
+                                "spring.datasource.username=" + postgres.getUsername(),
+                                "spring.datasource.password=" + postgres.getPassword(),
+                                "polar.cache.books.maximum-size=0",
+                                "polar.virtual-threads.enabled=" + virtualThreads)
+                        .run()) {
+            var repository = context.getBean(BookRepository.class);
+            if (!repository.existsByIsbn(ISBN)) {
+                repository.save(Book.of(ISBN, "Northern Lights", "Lyra Silvester", 9.9, "p"));
+            }
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", int.class);
+            var uri = URI.create("http://localhost:%d/books/%s".formatted(port, ISBN));
+
+            var result = new LoadGenerator().run(uri, REQUESTS, CONCURRENCY);
+
+            System.out.println(
+                    result.format(virtualThreads ? "virtual threads" : "platform threads"));
+            assertThat(result.requests()).isEqualTo(REQUESTS);
+        }
+    }
+
+    @ParameterizedTest(name = "stack: {0}")
+    @ValueSource(strings = {"servlet", "reactive"})
+    void fetchBookOnServletAndReactiveStacks(String stack) throws InterruptedException {
+        boolean reactive = stack.equals("reactive");
+        try (var context =
+                new SpringApplicationBuilder(CatalogServiceApplication.class)
+                        .profiles(reactive ? new String[] {"reactive"} : new String[0])
+                        .properties(
+                                "server.port=0",
+                                "spring.datasource.url=" + jdbcUrl,
+                                "spring.datasource.username=" + postgres.getUsername(),
+                                "spring.datasource.password=" + postgres.getPassword(),
+                                "spring.r2dbc.url=" + r2dbcUrl,
+                                "polar.cache.books.maximum-size=0")
+                        .run()) {
+            var book = Book.of(ISBN, "Northern Lights", "Lyra Silvester", 9.9, "p");
+            if (reactive) {
+                context.getBean(ReactiveBookRepository.class)
+                        .insertIfAbsent(book, Instant.now(), null)
+                        .block();
+            } else {
+                var repository = context.getBean(BookRepository.class);
+                if (!repository.existsByIsbn(ISBN)) {
+                    repository.save(book);
+                }
+            }
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", int.class);
+            var uri = URI.create("http://localhost:%d/books/%s".formatted(port, ISBN));
+            int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            var result = new LoadGenerator().run(uri, REQUESTS, CONCURRENCY);
+
+            int peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+            long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            System.out.printf(
+                    "%s threads-before=%d peak-threads=%d heap-used=%dMiB%n",
+                    result.format(stack), threadsBefore, peakThreads, heapUsed >> 20);
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            assertThat(result.requests()).isEqualTo(REQUESTS);
+        }
+    }
+}
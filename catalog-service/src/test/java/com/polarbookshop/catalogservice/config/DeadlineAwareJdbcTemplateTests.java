@@ -0,0 +1,82 @@
+package com.polarbookshop.catalogservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+public class DeadlineAwareJdbcTemplateTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private DeadlineAwareJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        jdbcTemplate = new DeadlineAwareJdbcTemplate(dataSource, meterRegistry);
+    }
+
+    @Test
+    void whenNoDeadlineThenNoQueryTimeout() throws SQLException {
+        jdbcTemplate.execute("select 1");
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    void whenDeadlineBoundThenRemainingBudgetRoundedUpToSeconds() throws SQLException {
+        RequestDeadline.after(Duration.ofMillis(1500)).run(() -> jdbcTemplate.execute("select 1"));
+        verify(statement).setQueryTimeout(2);
+    }
+
+    @Test
+    void whenDeadlinePassedThenStatementNotSent() throws SQLException {
+        RequestDeadline.after(Duration.ZERO)
+                .run(
+                        () ->
+                                assertThatThrownBy(() -> jdbcTemplate.execute("select 1"))
+                                        .isInstanceOf(QueryTimeoutException.class));
+        verify(statement, never()).execute("select 1");
+        assertThat(
+                        meterRegistry
+                                .get("polar.deadline.exceeded")
+                                .tag("stage", "before_query")
+                                .counter()
+                                .count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void whenDriverCancelsQueryThenQueryTimeout() throws SQLException {
+        when(statement.execute("select 1"))
+                .thenThrow(new SQLException("canceling statement due to user request", "57014"));
+        RequestDeadline.after(Duration.ofSeconds(1))
+                .run(
+                        () ->
+                                assertThatThrownBy(() -> jdbcTemplate.execute("select 1"))
+                                        .isInstanceOf(QueryTimeoutException.class));
+        assertThat(
+                        meterRegistry
+                                .get("polar.deadline.exceeded")
+                                .tag("stage", "query")
+                                .counter()
+                                .count())
+                .isEqualTo(1.0);
+    }
+}
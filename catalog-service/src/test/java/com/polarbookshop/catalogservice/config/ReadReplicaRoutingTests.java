@@ -0,0 +1,95 @@
+package com.polarbookshop.catalogservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.polarbookshop.catalogservice.domain.Book;
+import com.polarbookshop.catalogservice.domain.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs against two independent PostgreSQL servers. The replica gets the schema but never the
+ * rows written through the primary, which makes it visible where each query was routed.
+ */
+@SpringBootTest
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingTests {
+
+    private static final String ISBN = "1234567801";
+
+    @Container
+    private static final PostgreSQLContainer<?> primary =
+            new PostgreSQLContainer<>("postgres:14.4");
+
+    @Container
+    private static final PostgreSQLContainer<?> replica =
+            new PostgreSQLContainer<>("postgres:14.4");
+
+    @Autowired private BookRepository bookRepository;
+
+    @Autowired private ReplicaHealthMonitor replicaHealthMonitor;
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void dynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("polar.replicas.enabled", () -> "true");
+        registry.add("polar.replicas.urls", replica::getJdbcUrl);
+        registry.add("polar.replicas.username", replica::getUsername);
+        registry.add("polar.replicas.password", replica::getPassword);
+        registry.add("polar.replicas.health-check-interval", () -> "1h");
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @Test
+    @Order(1)
+    void readOnlyQueriesGoToReplicaAndWritesToPrimary() {
+        bookRepository.save(Book.of(ISBN, "Title", "Author", 9.90, "Polarsophia"));
+
+        assertThat(bookRepository.existsByIsbn(ISBN)).isFalse();
+        assertThat(bookRepository.findByIsbn(ISBN)).isEmpty();
+        assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "replica-0").gauge())
+                .isNotNull();
+        assertThat(
+                        meterRegistry
+                                .get("polar.datasource.replica.healthy")
+                                .tag("replica", "replica-0")
+                                .gauge()
+                                .value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @Order(2)
+    void whenReplicaIsDownThenReadsFallBackToPrimary() {
+        replica.stop();
+        replicaHealthMonitor.checkReplicas();
+
+        assertThat(bookRepository.existsByIsbn(ISBN)).isTrue();
+        assertThat(meterRegistry.get("polar.datasource.replica.fallbacks").counter().count())
+                .isGreaterThan(0);
+    }
+}
@@ -0,0 +1,164 @@
+package com.polarbookshop.catalogservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs against a primary and a standby streaming from it, so the lag comes from real
+ * replication: a standby that stops replaying, and one that loses its primary.
+ */
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaHealthMonitorTests {
+
+    private static final String IMAGE = "bitnami/postgresql:14.4.0";
+    private static final String PASSWORD = "password";
+    private static final Duration MAX_LAG = Duration.ofSeconds(1);
+
+    private static final Network network = Network.newNetwork();
+
+    @Container
+    private static final GenericContainer<?> primary =
+            new GenericContainer<>(IMAGE)
+                    .withNetwork(network)
+                    .withNetworkAliases("primary")
+                    .withEnv("POSTGRESQL_PASSWORD", PASSWORD)
+                    .withEnv("POSTGRESQL_REPLICATION_MODE", "master")
+                    .withEnv("POSTGRESQL_REPLICATION_USER", "replicator")
+                    .withEnv("POSTGRESQL_REPLICATION_PASSWORD", PASSWORD)
+                    .withExposedPorts(5432)
+                    .waitingFor(Wait.forLogMessage(".*ready to accept connections.*\\n", 1));
+
+    @Container
+    private static final GenericContainer<?> standby =
+            new GenericContainer<>(IMAGE)
+                    .withNetwork(network)
+                    .dependsOn(primary)
+                    .withEnv("POSTGRESQL_PASSWORD", PASSWORD)
+                    .withEnv("POSTGRESQL_REPLICATION_MODE", "slave")
+                    .withEnv("POSTGRESQL_REPLICATION_USER", "replicator")
+                    .withEnv("POSTGRESQL_REPLICATION_PASSWORD", PASSWORD)
+                    .withEnv("POSTGRESQL_MASTER_HOST", "primary")
+                    .withEnv("POSTGRESQL_MASTER_PORT_NUMBER", "5432")
+                    .withExposedPorts(5432)
+                    .waitingFor(
+                            Wait.forLogMessage(".*ready to accept read.only connections.*\\n", 1));
+
+    private static JdbcTemplate primaryJdbc;
+    private static JdbcTemplate standbyJdbc;
+    private static ReplicaHealthMonitor monitor;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource primaryDataSource = dataSource(primary);
+        DataSource standbyDataSource = dataSource(standby);
+        primaryJdbc = new JdbcTemplate(primaryDataSource);
+        standbyJdbc = new JdbcTemplate(standbyDataSource);
+        monitor =
+                new ReplicaHealthMonitor(
+                        primaryDataSource,
+                        Map.of("replica-0", standbyDataSource),
+                        MAX_LAG,
+                        Duration.ofHours(1),
+                        new SimpleMeterRegistry());
+        primaryJdbc.execute("create table probe (id serial primary key)");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        network.close();
+    }
+
+    @Test
+    @Order(1)
+    void whenStandbyReplayedPrimaryWalThenHealthy() {
+        primaryJdbc.update("insert into probe default values");
+
+        assertThat(eventually(ReplicaHealthMonitorTests::isHealthy)).isTrue();
+    }
+
+    @Test
+    @Order(2)
+    void whenPrimaryIdleThenStandbyStaysHealthy() throws InterruptedException {
+        Thread.sleep(MAX_LAG.multipliedBy(2).toMillis());
+
+        monitor.checkReplicas();
+
+        assertThat(monitor.nextHealthyReplica()).contains("replica-0");
+    }
+
+    @Test
+    @Order(3)
+    void whenStandbyStopsReplayingWhilePrimaryWritesThenUnhealthy() throws InterruptedException {
+        standbyJdbc.execute("select pg_wal_replay_pause()");
+        try {
+            primaryJdbc.update("insert into probe default values");
+            Thread.sleep(MAX_LAG.multipliedBy(2).toMillis());
+
+            monitor.checkReplicas();
+
+            assertThat(monitor.nextHealthyReplica()).isEmpty();
+        } finally {
+            standbyJdbc.execute("select pg_wal_replay_resume()");
+        }
+        assertThat(eventually(ReplicaHealthMonitorTests::isHealthy)).isTrue();
+    }
+
+    @Test
+    @Order(4)
+    void whenStandbyLosesPrimaryThenUnhealthy() {
+        primary.stop();
+
+        assertThat(eventually(() -> !isHealthy())).isTrue();
+        assertThat(standbyJdbc.queryForObject("select pg_is_in_recovery()", Boolean.class))
+                .isTrue();
+    }
+
+    private static boolean isHealthy() {
+        monitor.checkReplicas();
+        return monitor.nextHealthyReplica().isPresent();
+    }
+
+    private static boolean eventually(BooleanSupplier condition) {
+        Instant deadline = Instant.now().plusSeconds(30);
+        while (Instant.now().isBefore(deadline)) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static DataSource dataSource(GenericContainer<?> container) {
+        return new DriverManagerDataSource(
+                "jdbc:postgresql://%s:%d/postgres"
+                        .formatted(container.getHost(), container.getMappedPort(5432)),
+                "postgres",
+                PASSWORD);
+    }
+}
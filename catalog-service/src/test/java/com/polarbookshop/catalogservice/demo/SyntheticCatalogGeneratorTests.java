@@ -0,0 +1,57 @@
+package com.polarbookshop.catalogservice.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.polarbookshop.catalogservice.config.TestDataProperties;
+import com.polarbookshop.catalogservice.domain.Book;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+class SyntheticCatalogGeneratorTests {
+
+    private final SyntheticCatalogGenerator generator =
+            new SyntheticCatalogGenerator(
+                    null, new TestDataProperties(10_000, 1000, 1, 42), new MockEnvironment());
+
+    @Test
+    void isbn13HasValidCheckDigit() {
+        assertThat(SyntheticCatalogGenerator.isbn13(30_640_615L)).isEqualTo("9780306406157");
+    }
+
+    @Test
+    void isbn10HasValidCheckDigit() {
+        assertThat(SyntheticCatalogGenerator.isbn10(30_640_615L)).isEqualTo("0306406152");
+    }
+
+    @Test
+    void writersCappedByConnectionPoolSize() {
+        var environment =
+                new MockEnvironment()
+                        .withProperty("spring.datasource.hikari.maximum-pool-size", "3");
+        var generator =
+                new SyntheticCatalogGenerator(
+                        null, new TestDataProperties(10_000, 1000, 8, 42), environment);
+        assertThat(generator.writerCount()).isEqualTo(3);
+    }
+
+    @Test
+    void sameBatchIsGeneratedTwiceTheSame() {
+        assertThat(generator.generateBatch(3, 3000, 100))
+                .isEqualTo(generator.generateBatch(3, 3000, 100));
+    }
+
+    @Test
+    void generatedBooksHaveDistinctWellFormedIsbns() {
+        List<Book> books = generator.generateBatch(0, 0, 1000);
+        assertThat(books).extracting(Book::isbn).doesNotHaveDuplicates();
+        assertThat(books)
+                .allSatisfy(
+                        book -> {
+                            assertThat(book.isbn()).matches("^([0-9]{10}|[0-9]{13})$");
+                            assertThat(book.title()).isNotBlank();
+                            assertThat(book.author()).isNotBlank();
+                            assertThat(book.price()).isPositive();
+                        });
+    }
+}
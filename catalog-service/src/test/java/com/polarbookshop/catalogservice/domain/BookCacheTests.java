@@ -0,0 +1,101 @@
+package com.polarbookshop.catalogservice.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.polarbookshop.catalogservice.config.BookCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BookCacheTests {
+
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        bookCache =
+                new BookCache(
+                        new BookCacheProperties(100, Duration.ofMinutes(1)),
+                        new SimpleMeterRegistry());
+    }
+
+    @Test
+    void whenOlderVersionPutThenNewerVersionKept() {
+        Book newer = bookWithVersion(2);
+        bookCache.put(newer, bookCache.generation());
+        bookCache.put(bookWithVersion(1), bookCache.generation());
+        assertThat(bookCache.get(newer.isbn(), isbn -> Optional.empty())).contains(newer);
+    }
+
+    @Test
+    void whenNewerVersionPutThenCachedBookReplaced() {
+        Book newer = bookWithVersion(2);
+        bookCache.put(bookWithVersion(1), bookCache.generation());
+        bookCache.put(newer, bookCache.generation());
+        assertThat(bookCache.get(newer.isbn(), isbn -> Optional.empty())).contains(newer);
+    }
+
+    @Test
+    void whenEvictedThenLoaderCalled() {
+        Book book = bookWithVersion(1);
+        Book reloaded = bookWithVersion(3);
+        bookCache.put(book, bookCache.generation());
+        bookCache.evict(book.isbn());
+        assertThat(bookCache.get(book.isbn(), isbn -> Optional.of(reloaded))).contains(reloaded);
+    }
+
+    @Test
+    void whenEvictedWhileLoadingThenLoadedBookNotCached() {
+        Book book = bookWithVersion(1);
+        Optional<Book> loadedBook =
+                bookCache.get(
+                        book.isbn(),
+                        isbn -> {
+                            bookCache.evict(isbn);
+                            return Optional.of(book);
+                        });
+        assertThat(loadedBook).contains(book);
+        assertThat(bookCache.get(book.isbn(), isbn -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void whenEvictedWhileLoadingManyThenLoadedBooksNotCached() {
+        Book book = bookWithVersion(1);
+        List<Book> loadedBooks =
+                bookCache.getAll(
+                        List.of(book.isbn()),
+                        isbns -> {
+                            bookCache.evict(book.isbn());
+                            return List.of(book);
+                        });
+        assertThat(loadedBooks).containsExactly(book);
+        assertThat(bookCache.getAll(List.of(book.isbn()), isbns -> List.of())).isEmpty();
+    }
+
+    @Test
+    void whenEvictedAfterWriteStartedThenWrittenBookNotCached() {
+        Book book = bookWithVersion(2);
+        long generation = bookCache.generation();
+        bookCache.evict(book.isbn());
+        bookCache.put(book, generation);
+        assertThat(bookCache.get(book.isbn(), isbn -> Optional.empty())).isEmpty();
+    }
+
+    private static Book bookWithVersion(int version) {
+        return new Book(
+                1L,
+                "1234567890",
+                "Book",
+                "Author",
+                12.3,
+                "publisher",
+                null,
+                null,
+                null,
+                null,
+                version);
+    }
+}
@@ -0,0 +1,65 @@
+package com.polarbookshop.catalogservice.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.polarbookshop.catalogservice.config.BookCacheProperties;
+import com.polarbookshop.catalogservice.config.ImportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class BookImportServiceTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+
+    private final BookSuggestionIndex suggestionIndex = mock(BookSuggestionIndex.class);
+
+    private final BookImportService bookImportService =
+            new BookImportService(
+                    bookRepository,
+                    new BookCache(
+                            new BookCacheProperties(100, Duration.ofMinutes(1)),
+                            new SimpleMeterRegistry()),
+                    suggestionIndex,
+                    Validation.buildDefaultValidatorFactory().getValidator(),
+                    Optional::empty,
+                    new ImportProperties(2, 10));
+
+    @Test
+    void whenIsbnRepeatedWithinBatchThenWrittenOnce() {
+        BookImportReport report =
+                bookImportService.importBooks(
+                        Stream.of(
+                                row(1, "1234567903"),
+                                row(2, "1234567903"),
+                                row(3, "1234567911"),
+                                row(4, "1234567938")));
+        assertThat(report.importedCount()).isEqualTo(3);
+        verify(bookRepository, times(2)).upsertAll(anyList(), any(), any());
+    }
+
+    @Test
+    void whenBookReplacedThenSuggestionsPatchedWithoutRebuild() {
+        Book previous = Book.of("1234567903", "Old Title", "Old Author", 9.9, null);
+        given(bookRepository.upsertAll(anyList(), any(), any())).willReturn(List.of(previous));
+        bookImportService.importBooks(Stream.of(row(1, "1234567903")));
+        verify(suggestionIndex).remove(previous);
+        verify(suggestionIndex).add(Book.of("1234567903", "Title", "Author", 9.9, null));
+        verify(suggestionIndex, never()).rebuild();
+    }
+
+    private static BookImportRow row(long lineNumber, String isbn) {
+        return BookImportRow.parsed(lineNumber, Book.of(isbn, "Title", "Author", 9.9, null));
+    }
+}
@@ -1,8 +1,11 @@
 package com.polarbookshop.catalogservice.domain;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 import com.polarbookshop.catalogservice.config.DataConfig;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -43,6 +46,128 @@ public class BookRepositoryJdbcTests {
                 .isEqualTo(2);
     }
 
+    @Test
+    void findPageAfterReturnsBooksOrderedById() {
+        var book1 = jdbcAggregateTemplate.insert(Book.of("1234567811", "t1", "a1", 1.0, "p"));
+        var book2 = jdbcAggregateTemplate.insert(Book.of("1234567812", "t2", "a2", 2.0, "p"));
+        var book3 = jdbcAggregateTemplate.insert(Book.of("1234567813", "t3", "a3", 3.0, "p"));
+        List<Book> page = bookRepository.findPageAfter(book1.id(), 2);
+        assertThat(page).extracting(Book::id).containsExactly(book2.id(), book3.id());
+    }
+
+    @Test
+    void findAllByIsbnReturnsKnownBooksOnly() {
+        jdbcAggregateTemplate.insert(Book.of("1234567840", "t1", "a1", 1.0, "p"));
+        jdbcAggregateTemplate.insert(Book.of("1234567841", "t2", "a2", 2.0, "p"));
+        List<Book> books =
+                bookRepository.findAllByIsbn(List.of("1234567840", "1234567841", "1234567842"));
+        assertThat(books)
+                .extracting(Book::isbn)
+                .containsExactlyInAnyOrder("1234567840", "1234567841");
+    }
+
+    @Test
+    void findCatalogStateReflectsLatestChange() {
+        jdbcAggregateTemplate.insert(Book.of("1234567814", "t", "a", 1.0, "p"));
+        CatalogState catalogState = bookRepository.findCatalogState();
+        assertThat(catalogState.bookCount()).isPositive();
+        assertThat(catalogState.lastModifiedDate()).isNotNull();
+    }
+
+    @Test
+    void findCatalogStateAdvancesWhenBookDeleted() {
+        jdbcAggregateTemplate.insert(Book.of("1234567843", "t", "a", 1.0, "p"));
+        CatalogState before = bookRepository.findCatalogState();
+        bookRepository.deleteByIsbn("1234567843");
+        CatalogState after = bookRepository.findCatalogState();
+        assertThat(after.lastModifiedDate()).isAfter(before.lastModifiedDate());
+    }
+
+    @Test
+    void findCatalogReturnsBooksWithTheirState() {
+        jdbcAggregateTemplate.insert(Book.of("1234567844", "t", "a", 1.0, "p"));
+        Catalog catalog = bookRepository.findCatalog();
+        assertThat(catalog.books()).hasSize((int) catalog.state().bookCount());
+        assertThat(catalog.books()).extracting(Book::isbn).contains("1234567844");
+    }
+
+    @Test
+    void upsertAllInsertsNewBooksAndUpdatesExistingOnes() {
+        var existing = jdbcAggregateTemplate.insert(Book.of("1234567815", "t", "a", 1.0, "p"));
+        List<Book> replacedBooks =
+                bookRepository.upsertAll(
+                        List.of(
+                                Book.of("1234567815", "new title", "a", 2.0, "p"),
+                                Book.of("1234567816", "t", "a", 3.0, "p")),
+                        Instant.now(),
+                        "importer");
+        assertThat(replacedBooks)
+                .extracting(Book::isbn, Book::title)
+                .containsExactly(tuple("1234567815", "t"));
+        Book updated = bookRepository.findByIsbn("1234567815").orElseThrow();
+        assertThat(updated.title()).isEqualTo("new title");
+        assertThat(updated.version()).isEqualTo(existing.version() + 1);
+        assertThat(updated.lastModifiedBy()).isEqualTo("importer");
+        assertThat(bookRepository.existsByIsbn("1234567816")).isTrue();
+    }
+
+    @Test
+    void searchRanksTitleMatchesFirst() {
+        var byAuthor =
+                jdbcAggregateTemplate.insert(
+                        Book.of("1234567817", "Ice Age", "Glacier Tolkien", 1.0, "p"));
+        var byTitle =
+                jdbcAggregateTemplate.insert(
+                        Book.of("1234567818", "Glacier Hiking", "Lyra Silvester", 1.0, "p"));
+        List<Book> books = bookRepository.search("glacier", 10, 0);
+        assertThat(books).extracting(Book::id).containsExactly(byTitle.id(), byAuthor.id());
+    }
+
+    @Test
+    void insertIfAbsentWhenBookAlreadyExistsThenEmpty() {
+        var book = Book.of("1234567819", "t", "a", 1.0, "p");
+        assertThat(bookRepository.insertIfAbsent(book, Instant.now(), null)).isPresent();
+        assertThat(bookRepository.insertIfAbsent(book, Instant.now(), null)).isEmpty();
+    }
+
+    @Test
+    void upsertAllVersionedReturnsPreviousTitleAndAuthor() {
+        var existing =
+                jdbcAggregateTemplate.insert(Book.of("1234567820", "old", "author", 1.0, "p"));
+        List<BookRevision> revisions =
+                bookRepository.upsertAllVersioned(
+                        List.of(Book.of("1234567820", "new", "author", 2.0, "p")),
+                        Instant.now(),
+                        null);
+        assertThat(revisions).hasSize(1);
+        assertThat(revisions.get(0).previousTitle()).isEqualTo("old");
+        assertThat(revisions.get(0).book().title()).isEqualTo("new");
+        assertThat(revisions.get(0).book().version()).isEqualTo(existing.version() + 1);
+    }
+
+    @Test
+    void upsertAllVersionedWhenVersionIsStaleThenThrows() {
+        var existing = jdbcAggregateTemplate.insert(Book.of("1234567821", "t", "a", 1.0, "p"));
+        var staleBook =
+                new Book(
+                        null,
+                        existing.isbn(),
+                        "new",
+                        "a",
+                        2.0,
+                        "p",
+                        null,
+                        null,
+                        null,
+                        null,
+                        existing.version() + 1);
+        assertThatThrownBy(
+                        () ->
+                                bookRepository.upsertAllVersioned(
+                                        List.of(staleBook), Instant.now(), null))
+                .isInstanceOf(BookVersionConflictException.class);
+    }
+
     @Test
     void findBookByIsbnWhenExisting() {
         var bookIsbn = "1234567895";
@@ -82,6 +207,44 @@ public class BookRepositoryJdbcTests {
         assertThat(book).isNull();
     }
 
+    @Test
+    void findChangesAfterReturnsUpdatesAndTombstonesInOrder() {
+        jdbcAggregateTemplate.insert(Book.of("1234567831", "title", "author", 1.0, "p"));
+        jdbcAggregateTemplate.insert(Book.of("1234567832", "title", "author", 2.0, "p"));
+        bookRepository.deleteByIsbn("1234567832");
+
+        List<BookChange> changes =
+                bookRepository
+                        .findChangesAfter(Instant.EPOCH, "", Instant.now().plusSeconds(60), 100)
+                        .stream()
+                        .filter(change -> change.isbn().startsWith("123456783"))
+                        .toList();
+
+        assertThat(changes)
+                .extracting(BookChange::isbn, BookChange::deleted)
+                .containsExactly(tuple("1234567831", false), tuple("1234567832", true));
+        assertThat(changes.get(0).book().title()).isEqualTo("title");
+        assertThat(changes.get(1).book()).isNull();
+    }
+
+    @Test
+    void findChangesAfterSkipsChangesUpToTheCursor() {
+        jdbcAggregateTemplate.insert(Book.of("1234567833", "title", "author", 1.0, "p"));
+        BookChange change =
+                bookRepository
+                        .findChangesAfter(Instant.EPOCH, "", Instant.now().plusSeconds(60), 100)
+                        .stream()
+                        .filter(c -> c.isbn().equals("1234567833"))
+                        .findFirst()
+                        .orElseThrow();
+
+        List<BookChange> changes =
+                bookRepository.findChangesAfter(
+                        change.changedDate(), change.isbn(), Instant.now().plusSeconds(60), 100);
+
+        assertThat(changes).extracting(BookChange::isbn).doesNotContain("1234567833");
+    }
+
     @Test
     void whenCreatedBookNotAuthenticatedThenNoAuditMetaData() {
         var book1 = Book.of("1234567893", "title1", "author1", 12.0, "publisher");
@@ -1,14 +1,27 @@
 package com.polarbookshop.catalogservice.domain;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.polarbookshop.catalogservice.config.BookCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 
 @ExtendWith(MockitoExtension.class)
 public class BookServiceTest {
@@ -17,16 +30,54 @@ public class BookServiceTest {
 
     @Mock private BookRepository bookRepository;
 
+    @Mock private BookSuggestionIndex bookSuggestionIndex;
+
+    @Mock private BookSnapshot bookSnapshot;
+
+    @Mock private AuditorAware<String> auditorAware;
+
+    @Spy
+    private BookCache bookCache =
+            new BookCache(
+                    new BookCacheProperties(100, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+
     @Test
     void whenBookToCreateAlreadyExistsThenThrows() {
         String isbn = "1234567890";
         Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
-        when(bookRepository.existsByIsbn(isbn)).thenReturn(true);
+        when(bookRepository.insertIfAbsent(eq(book), any(), any())).thenReturn(Optional.empty());
         Assertions.assertThatThrownBy(() -> bookService.addBookToCatalog(book))
                 .isInstanceOf(BookAlreadyExistsException.class)
                 .hasMessage("A book with ISBN " + isbn + " already exists.");
     }
 
+    @Test
+    void whenCursorEncodedThenDecodedToSameId() {
+        String cursor = BookService.encodeCursor(42L);
+        Assertions.assertThat(BookService.decodeCursor(cursor)).isEqualTo(42L);
+    }
+
+    @Test
+    void whenChangeCursorEncodedThenDecodedToSamePosition() {
+        var cursor =
+                new BookService.ChangeCursor(
+                        Instant.parse("2023-09-01T10:15:30.123456Z"), "1234567890");
+        String encoded = BookService.encodeChangeCursor(cursor);
+        Assertions.assertThat(BookService.decodeChangeCursor(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void whenChangeCursorNotValidThenThrows() {
+        Assertions.assertThatThrownBy(() -> BookService.decodeChangeCursor("bm90LWEtY3Vyc29y"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void whenCursorNotValidThenThrows() {
+        Assertions.assertThatThrownBy(() -> BookService.decodeCursor("not-a-cursor"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
     @Test
     void whenBookToReadDoesNotExistsThenThrows() {
         String isbn = "1234567890";
@@ -35,4 +86,52 @@ public class BookServiceTest {
                 .isInstanceOf(BookNotFoundException.class)
                 .hasMessage("The book with ISBN " + isbn + " was not found.");
     }
+
+    @Test
+    void whenBookReadTwiceThenLoadedFromRepositoryOnce() {
+        String isbn = "1234567890";
+        Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
+        when(bookRepository.findByIsbn(isbn)).thenReturn(Optional.of(book));
+        bookService.viewBookDetails(isbn);
+        Assertions.assertThat(bookService.viewBookDetails(isbn)).isEqualTo(book);
+        verify(bookRepository, times(1)).findByIsbn(isbn);
+    }
+
+    @Test
+    void whenPoolTimesOutThenBookReadFromSnapshotAndNotCached() {
+        String isbn = "1234567890";
+        Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
+        var poolTimeout =
+                new CannotGetJdbcConnectionException(
+                        "Failed to obtain JDBC Connection",
+                        new SQLTransientConnectionException("Connection is not available"));
+        when(bookRepository.findByIsbn(isbn)).thenThrow(poolTimeout).thenReturn(Optional.of(book));
+        when(bookSnapshot.canServe(poolTimeout)).thenReturn(true);
+        when(bookSnapshot.findByIsbn(isbn)).thenReturn(Optional.of(book));
+        Assertions.assertThat(bookService.viewBookDetails(isbn)).isEqualTo(book);
+        Assertions.assertThat(bookService.viewBookDetails(isbn)).isEqualTo(book);
+        verify(bookRepository, times(2)).findByIsbn(isbn);
+    }
+
+    @Test
+    void whenBookRemovedThenNextReadGoesToRepository() {
+        String isbn = "1234567890";
+        Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
+        when(bookRepository.findByIsbn(isbn)).thenReturn(Optional.of(book));
+        bookService.viewBookDetails(isbn);
+        bookService.removeBookFromCatalog(isbn);
+        bookService.viewBookDetails(isbn);
+        verify(bookRepository, times(2)).findByIsbn(isbn);
+    }
+
+    @Test
+    void whenEditedBookHadAnotherTitleThenSuggestionReplaced() {
+        String isbn = "1234567890";
+        Book book = Book.of(isbn, "New title", "Author", 12.3, "publisher");
+        when(bookRepository.upsertAllVersioned(eq(List.of(book)), any(), any()))
+                .thenReturn(List.of(new BookRevision(book, "Old title", "Author")));
+        Assertions.assertThat(bookService.editBookDetails(isbn, book)).isEqualTo(book);
+        verify(bookSuggestionIndex).remove(isbn, "Old title", "Author");
+        verify(bookSuggestionIndex).add(book);
+    }
 }
@@ -0,0 +1,141 @@
+package com.polarbookshop.catalogservice.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.polarbookshop.catalogservice.config.SnapshotProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+public class BookSnapshotTests {
+
+    private static final Instant MODIFIED_DATE = Instant.parse("2023-09-01T10:15:30.123456Z");
+
+    private final List<Book> books =
+            List.of(
+                    book(1L, "9780306406157", "Northern Lights", null),
+                    book(2L, "1234567806", "Polar Journey", "Polarsophia"),
+                    book(5L, "1234567814", "Émile", "Polarsophia"));
+
+    @TempDir private Path directory;
+
+    private BookRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private BookSnapshot snapshot;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        repository = mock(BookRepository.class);
+        willAnswer(
+                        invocation -> {
+                            books.forEach(invocation.getArgument(1, Consumer.class));
+                            return null;
+                        })
+                .given(repository)
+                .streamAll(anyInt(), any());
+        meterRegistry = new SimpleMeterRegistry();
+        snapshot = newSnapshot();
+        snapshot.refresh();
+    }
+
+    @Test
+    void whenIsbnInSnapshotThenBookDecoded() {
+        assertThat(snapshot.findByIsbn("1234567806")).contains(books.get(1));
+        assertThat(snapshot.findByIsbn("9780306406157")).contains(books.get(0));
+        assertThat(snapshot.findByIsbn("1234567814")).contains(books.get(2));
+        assertThat(snapshot.findByIsbn("1234567822")).isEmpty();
+        assertThat(snapshot.findByIsbn("12345678")).isEmpty();
+    }
+
+    @Test
+    void whenPageRequestedThenBooksAfterIdReturned() {
+        assertThat(snapshot.findPageAfter(0, 2)).containsExactly(books.get(0), books.get(1));
+        assertThat(snapshot.findPageAfter(2, 2)).containsExactly(books.get(2));
+        assertThat(snapshot.findPageAfter(5, 2)).isEmpty();
+        assertThat(snapshot.findAll()).isEqualTo(books);
+    }
+
+    @Test
+    void whenCatalogStateRequestedThenTakenFromHeader() {
+        assertThat(snapshot.findCatalogState())
+                .contains(new CatalogState(3, MODIFIED_DATE.plusSeconds(5)));
+        assertThat(meterRegistry.get("polar.catalog.snapshot.age").gauge().value())
+                .isGreaterThanOrEqualTo(0.0);
+    }
+
+    @Test
+    void whenSnapshotFileExistsThenLoadedOnStartup() {
+        assertThat(newSnapshot().findByIsbn("1234567806")).contains(books.get(1));
+    }
+
+    @Test
+    void whenSnapshotFileTakenFromAnotherDatabaseThenNotLoaded() {
+        var otherSnapshot = newSnapshot("jdbc:postgresql://other-host:5432/polardb_catalog");
+
+        assertThat(otherSnapshot.findByIsbn("1234567806")).isEmpty();
+        assertThat(otherSnapshot.findCatalogState()).isEmpty();
+    }
+
+    @Test
+    void whenPoolTimesOutThenSnapshotCanServe() {
+        var poolTimeout =
+                new CannotGetJdbcConnectionException(
+                        "Failed to obtain JDBC Connection",
+                        new SQLTransientConnectionException("Connection is not available"));
+        assertThat(snapshot.canServe(poolTimeout)).isTrue();
+        assertThat(snapshot.canServe(new IllegalStateException())).isFalse();
+        assertThat(meterRegistry.get("polar.catalog.snapshot.fallbacks").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private BookSnapshot newSnapshot() {
+        return newSnapshot("jdbc:postgresql://localhost:5432/polardb_catalog");
+    }
+
+    private BookSnapshot newSnapshot(String url) {
+        return new BookSnapshot(
+                repository,
+                new SnapshotProperties(
+                        true, directory.resolve("catalog.bin"), Duration.ofMinutes(5)),
+                dataSourceProperties(url),
+                meterRegistry);
+    }
+
+    private static DataSourceProperties dataSourceProperties(String url) {
+        var properties = new DataSourceProperties();
+        properties.setUrl(url);
+        properties.setUsername("user");
+        return properties;
+    }
+
+    private static Book book(Long id, String isbn, String title, String publisher) {
+        Instant modifiedDate = MODIFIED_DATE.plusSeconds(id);
+        return new Book(
+                id,
+                isbn,
+                title,
+                "Lyra Silvester",
+                9.90 + id,
+                publisher,
+                modifiedDate,
+                modifiedDate,
+                "isabelle",
+                null,
+                id.intValue());
+    }
+}
@@ -0,0 +1,119 @@
+package com.polarbookshop.catalogservice.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.polarbookshop.catalogservice.config.SuggestionProperties;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BookSuggestionIndexTests {
+
+    private final BookRepository repository = mock(BookRepository.class);
+    private BookSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSuggestionIndex(repository, new SuggestionProperties(10, 50, 3, 100));
+    }
+
+    @Test
+    void whenPrefixMatchesTitleOrAuthorThenSuggested() {
+        index.add(Book.of("1234567891", "Northern Lights", "Lyra Silvester", 9.9, "p"));
+        index.add(Book.of("1234567892", "Polar Journey", "Iorak Polarson", 12.9, "p"));
+        assertThat(index.suggest("nor", null))
+                .containsExactly(new BookSuggestion("Northern Lights", "1234567891"));
+        assertThat(index.suggest("IORAK", null))
+                .containsExactly(new BookSuggestion("Iorak Polarson", "1234567892"));
+    }
+
+    @Test
+    void whenPrefixHasDiacriticsThenNormalized() {
+        index.add(Book.of("1234567891", "Émile", "Jean-Jacques Rousseau", 9.9, "p"));
+        assertThat(index.suggest("emi", null)).extracting(BookSuggestion::text).contains("Émile");
+        assertThat(index.suggest("jean jac", null))
+                .extracting(BookSuggestion::text)
+                .contains("Jean-Jacques Rousseau");
+    }
+
+    @Test
+    void whenBookRemovedThenNotSuggestedBeforeAndAfterCompaction() {
+        Book book = Book.of("1234567891", "Northern Lights", "Lyra Silvester", 9.9, "p");
+        index.add(book);
+        index.add(Book.of("1234567892", "North Pole", "Someone", 9.9, "p"));
+        index.remove(book);
+        assertThat(index.suggest("north", null))
+                .extracting(BookSuggestion::text)
+                .containsExactly("North Pole");
+        index.add(Book.of("1234567893", "Northbound", "Someone Else", 9.9, "p"));
+        assertThat(index.suggest("north", null))
+                .extracting(BookSuggestion::text)
+                .containsExactly("North Pole", "Northbound");
+    }
+
+    @Test
+    void whenLimitGivenThenAtMostLimitSuggestions() {
+        for (int i = 0; i < 10; i++) {
+            index.add(Book.of("123456789" + i, "Title " + i, "Author " + i, 9.9, "p"));
+        }
+        List<BookSuggestion> suggestions = index.suggest("title", 4);
+        assertThat(suggestions)
+                .extracting(BookSuggestion::text)
+                .containsExactly("Title 0", "Title 1", "Title 2", "Title 3");
+    }
+
+    @Test
+    void whenRebuiltThenSuggestsBooksFromRepository() {
+        Book northernLights = Book.of("1234567891", "Northern Lights", "Lyra Silvester", 9.9, "p");
+        Book northPole = Book.of("1234567892", "North Pole", "Someone", 9.9, "p");
+        streamBooks(
+                action -> {
+                    action.accept(northPole);
+                    action.accept(northernLights);
+                });
+        index.add(Book.of("1234567893", "Northbound", "Someone Else", 9.9, "p"));
+
+        index.rebuild();
+
+        assertThat(index.suggest("north", null))
+                .containsExactly(
+                        new BookSuggestion("North Pole", "1234567892"),
+                        new BookSuggestion("Northern Lights", "1234567891"));
+    }
+
+    @Test
+    void whenBooksChangeDuringRebuildThenChangesKept() {
+        Book northernLights = Book.of("1234567891", "Northern Lights", "Lyra Silvester", 9.9, "p");
+        Book northPole = Book.of("1234567892", "North Pole", "Someone", 9.9, "p");
+        Book northbound = Book.of("1234567893", "Northbound", "Someone Else", 9.9, "p");
+        streamBooks(
+                action -> {
+                    action.accept(northernLights);
+                    index.remove(northernLights);
+                    index.add(northbound);
+                    action.accept(northPole);
+                });
+
+        index.rebuild();
+
+        assertThat(index.suggest("north", null))
+                .extracting(BookSuggestion::text)
+                .containsExactly("North Pole", "Northbound");
+    }
+
+    private void streamBooks(Consumer<Consumer<Book>> books) {
+        doAnswer(
+                        invocation -> {
+                            Consumer<Book> action = invocation.getArgument(1);
+                            books.accept(action);
+                            return null;
+                        })
+                .when(repository)
+                .streamAll(eq(100), any());
+    }
+}
@@ -23,7 +23,7 @@ public class BookValidationTests {
 
     @Test
     void whenAllFieldsCorrectThenValidateSucceeds() {
-        Book book = Book.of("1234567890", "Book", "Author of this book", 12.3, "publisher");
+        Book book = Book.of("1234567806", "Book", "Author of this book", 12.3, "publisher");
         Set<ConstraintViolation<Book>> violations = validator.validate(book);
         Assertions.assertTrue(violations.isEmpty());
     }
@@ -46,9 +46,18 @@ public class BookValidationTests {
                 "The ISBN format must be valid.", violations.iterator().next().getMessage());
     }
 
+    @Test
+    void whenIsbnChecksumIncorrectThenValidationFails() {
+        Book book = Book.of("1234567890", "Book", "Author of this book", 12.3, "publisher");
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        Assertions.assertEquals(1, violations.size());
+        Assertions.assertEquals(
+                "The ISBN format must be valid.", violations.iterator().next().getMessage());
+    }
+
     @Test
     void whenTitleNotDefinedThenValidationFails() {
-        Book book = Book.of("1234567890", null, "Author of this book", 12.3, "publisher");
+        Book book = Book.of("1234567806", null, "Author of this book", 12.3, "publisher");
         Set<ConstraintViolation<Book>> violations = validator.validate(book);
         assertThat(violations).isNotEmpty();
         assertThat(violations.iterator().next().getMessage())
@@ -57,7 +66,7 @@ public class BookValidationTests {
 
     @Test
     void whenAuthorNotDefinedThenValidationFails() {
-        Book book = Book.of("1234567890", "title", null, 12.3, "publisher");
+        Book book = Book.of("1234567806", "title", null, 12.3, "publisher");
         Set<ConstraintViolation<Book>> violations = validator.validate(book);
         assertThat(violations).isNotEmpty();
         assertThat(violations.iterator().next().getMessage())
@@ -66,7 +75,7 @@ public class BookValidationTests {
 
     @Test
     void whenPriceNotDefinedThenValidationFails() {
-        Book book = Book.of("1234567890", "title", "author", null, "publisher");
+        Book book = Book.of("1234567806", "title", "author", null, "publisher");
         Set<ConstraintViolation<Book>> violations = validator.validate(book);
         assertThat(violations).isNotEmpty();
         assertThat(violations.iterator().next().getMessage())
@@ -75,7 +84,7 @@ public class BookValidationTests {
 
     @Test
     void whenPriceDefinedButZeroThenValidationFails() {
-        Book book = Book.of("1234567890", "title", "author", 0.0, "publisher");
+        Book book = Book.of("1234567806", "title", "author", 0.0, "publisher");
         Set<ConstraintViolation<Book>> violations = validator.validate(book);
         assertThat(violations).isNotEmpty();
         assertThat(violations.iterator().next().getMessage())
@@ -84,7 +93,7 @@ public class BookValidationTests {
 
     @Test
     void whenPriceDefinedButNegativeThenValidationFails() {
-        Book book = Book.of("1234567890", "title", "author", -2.3, "publisher");
+        Book book = Book.of("1234567806", "title", "author", -2.3, "publisher");
         Set<ConstraintViolation<Book>> violations = validator.validate(book);
         assertThat(violations).isNotEmpty();
         assertThat(violations.iterator().next().getMessage())
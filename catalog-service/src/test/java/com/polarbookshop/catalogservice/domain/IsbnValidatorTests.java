@@ -0,0 +1,32 @@
+package com.polarbookshop.catalogservice.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class IsbnValidatorTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0306406152", "080442957X", "9780306406157", "9791032305690"})
+    void whenChecksumValidThenIsbnValid(String isbn) {
+        assertThat(IsbnValidator.isValid(isbn)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "0306406153",
+                "9780306406158",
+                "X306406152",
+                "03064061X2",
+                "080442957x",
+                "978030640615X",
+                "030640615",
+                "97803064061570",
+                "030640615 "
+            })
+    void whenChecksumOrFormatInvalidThenIsbnInvalid(String isbn) {
+        assertThat(IsbnValidator.isValid(isbn)).isFalse();
+    }
+}
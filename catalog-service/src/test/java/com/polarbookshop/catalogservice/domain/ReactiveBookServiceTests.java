@@ -0,0 +1,62 @@
+package com.polarbookshop.catalogservice.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.ReactiveAuditorAware;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBookServiceTests {
+
+    @InjectMocks private ReactiveBookService bookService;
+
+    @Mock private ReactiveBookRepository bookRepository;
+
+    @Mock private ReactiveAuditorAware<String> auditorAware;
+
+    @Test
+    void whenBookToReadDoesNotExistThenErrors() {
+        when(bookRepository.findByIsbn("1234567890")).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookService.viewBookDetails("1234567890"))
+                .expectError(BookNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void whenBookToCreateAlreadyExistsThenErrors() {
+        String isbn = "1234567890";
+        Book book = Book.of(isbn, "Book", "Author of this book", 12.3, "publisher");
+        when(auditorAware.getCurrentAuditor()).thenReturn(Mono.empty());
+        when(bookRepository.insertIfAbsent(eq(book), any(), eq(null))).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookService.addBookToCatalog(book))
+                .expectErrorSatisfies(
+                        error ->
+                                assertThat(error)
+                                        .isInstanceOf(BookAlreadyExistsException.class)
+                                        .hasMessageContaining(isbn))
+                .verify();
+    }
+
+    @Test
+    void whenBookToEditHasStaleVersionThenErrors() {
+        String isbn = "1234567890";
+        Book book = new Book(null, isbn, "Title", "Author", 9.9, null, null, null, null, null, 2);
+        when(auditorAware.getCurrentAuditor()).thenReturn(Mono.just("isabelle"));
+        when(bookRepository.upsertVersioned(any(), any(), eq("isabelle"))).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookService.editBookDetails(isbn, book))
+                .expectError(BookVersionConflictException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,94 @@
+package com.polarbookshop.catalogservice.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class AdmissionControlFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void whenSlotFreeThenRequestPassesAndReleasesSlot() throws Exception {
+        var filter = newFilter(0, Duration.ZERO);
+        for (int i = 0; i < 2; i++) {
+            var response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(), response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void whenQueueFullThenRejectedWithRetryAfter() throws Exception {
+        var filter = newFilter(0, Duration.ofSeconds(1));
+        var rejected = new MockHttpServletResponse();
+        filter.doFilter(
+                new MockHttpServletRequest(),
+                new MockHttpServletResponse(),
+                (request, response) ->
+                        filter.doFilter(
+                                new MockHttpServletRequest(), rejected, new MockFilterChain()));
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(rejectionCount("queue_full")).isEqualTo(1.0);
+    }
+
+    @Test
+    void whenNoSlotFreedInTimeThenRejected() throws Exception {
+        var filter = newFilter(1, Duration.ofMillis(10));
+        var rejected = new MockHttpServletResponse();
+        filter.doFilter(
+                new MockHttpServletRequest(),
+                new MockHttpServletResponse(),
+                (request, response) ->
+                        filter.doFilter(
+                                new MockHttpServletRequest(), rejected, new MockFilterChain()));
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejectionCount("timeout")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("polar.admission.wait").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("polar.admission.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void whenServedWithoutDatabaseThenAdmittedWithoutSlot() throws Exception {
+        var filter =
+                new AdmissionControlFilter(
+                        1,
+                        0,
+                        Duration.ZERO,
+                        Duration.ofSeconds(2),
+                        request -> "/books/suggest".equals(request.getRequestURI()),
+                        meterRegistry);
+        var suggested = new MockHttpServletResponse();
+        filter.doFilter(
+                new MockHttpServletRequest(),
+                new MockHttpServletResponse(),
+                (request, response) ->
+                        filter.doFilter(
+                                new MockHttpServletRequest("GET", "/books/suggest"),
+                                suggested,
+                                new MockFilterChain()));
+        assertThat(suggested.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.find("polar.admission.rejections").counters())
+                .allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+
+    private AdmissionControlFilter newFilter(int queueCapacity, Duration maxWait) {
+        return new AdmissionControlFilter(
+                1, queueCapacity, maxWait, Duration.ofSeconds(2), request -> false, meterRegistry);
+    }
+
+    private double rejectionCount(String reason) {
+        return meterRegistry
+                .get("polar.admission.rejections")
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}
@@ -1,27 +1,48 @@
 package com.polarbookshop.catalogservice.web;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.polarbookshop.catalogservice.config.BinaryCodecConfig;
+import com.polarbookshop.catalogservice.config.RequestDeadline;
 import com.polarbookshop.catalogservice.config.SecurityConfig;
 import com.polarbookshop.catalogservice.domain.Book;
+import com.polarbookshop.catalogservice.domain.BookChange;
+import com.polarbookshop.catalogservice.domain.BookChanges;
+import com.polarbookshop.catalogservice.domain.BookImportService;
 import com.polarbookshop.catalogservice.domain.BookNotFoundException;
+import com.polarbookshop.catalogservice.domain.BookPage;
 import com.polarbookshop.catalogservice.domain.BookService;
+import com.polarbookshop.catalogservice.domain.Catalog;
+import com.polarbookshop.catalogservice.domain.CatalogState;
+import com.polarbookshop.catalogservice.domain.InvalidCursorException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import javax.ws.rs.core.MediaType;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 @WebMvcTest(BookController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, BinaryCodecConfig.class, BookImportReader.class})
 public class BookControllerMvcTests {
 
     @Autowired private MockMvc mockMvc;
@@ -30,11 +51,13 @@ public class BookControllerMvcTests {
 
     @MockBean private BookService bookService;
 
+    @MockBean private BookImportService bookImportService;
+
     @MockBean private JwtDecoder jwtDecoder;
 
     @Test
     void whenGetBookExistingAndAuthenticatedThenShouldReturn200() throws Exception {
-        String isbn = "1234567890";
+        String isbn = "1234567806";
         Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
         given(bookService.viewBookDetails(isbn)).willReturn(book);
         mockMvc.perform(
@@ -48,16 +71,34 @@ public class BookControllerMvcTests {
 
     @Test
     void whenGetBookExistingAndUnauthenticatedThenShouldReturn200() throws Exception {
-        String isbn = "1234567890";
+        String isbn = "1234567806";
         Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
         given(bookService.viewBookDetails(isbn)).willReturn(book);
         mockMvc.perform(MockMvcRequestBuilders.get("/books/" + isbn))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
+    @Test
+    void whenGetBookAsCborThenReturnCbor() throws Exception {
+        String isbn = "1234567806";
+        Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
+        given(bookService.viewBookDetails(isbn)).willReturn(book);
+        byte[] content =
+                mockMvc.perform(
+                                MockMvcRequestBuilders.get("/books/" + isbn)
+                                        .header(HttpHeaders.ACCEPT, "application/cbor"))
+                        .andExpect(MockMvcResultMatchers.status().isOk())
+                        .andExpect(MockMvcResultMatchers.content().contentType("application/cbor"))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsByteArray();
+        var cborMapper = CBORMapper.builder().findAndAddModules().build();
+        assertThat(cborMapper.readValue(content, Book.class)).isEqualTo(book);
+    }
+
     @Test
     void whenGetBookNotExistingAndAuthenticatedThenShouldReturn404() throws Exception {
-        String isbn = "1234567890";
+        String isbn = "1234567806";
         given(bookService.viewBookDetails(isbn)).willThrow(BookNotFoundException.class);
         mockMvc.perform(
                         MockMvcRequestBuilders.get("/books/" + isbn)
@@ -70,7 +111,7 @@ public class BookControllerMvcTests {
 
     @Test
     void whenGetBookNotExistingAndUnauthenticatedThenShouldReturn404() throws Exception {
-        String isbn = "1234567890";
+        String isbn = "1234567806";
         given(bookService.viewBookDetails(isbn)).willThrow(BookNotFoundException.class);
         mockMvc.perform(MockMvcRequestBuilders.get("/books/" + isbn))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
@@ -78,15 +119,169 @@ public class BookControllerMvcTests {
 
     @Test
     void whenBootExistingThenShouldReturn404() throws Exception {
-        String isbn = "1234567890";
+        String isbn = "1234567806";
         given(bookService.viewBookDetails(isbn)).willThrow(BookNotFoundException.class);
         mockMvc.perform(MockMvcRequestBuilders.get("/books/" + isbn))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    void whenGetBookWithMatchingETagThenReturn304() throws Exception {
+        String isbn = "1234567806";
+        Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
+        given(bookService.viewBookDetails(isbn)).willReturn(book);
+        String eTag =
+                mockMvc.perform(MockMvcRequestBuilders.get("/books/" + isbn))
+                        .andExpect(MockMvcResultMatchers.status().isOk())
+                        .andReturn()
+                        .getResponse()
+                        .getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/books/" + isbn)
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    void whenGetBookAsCborWithJsonETagThenReturn304AndVaryOnAccept() throws Exception {
+        String isbn = "1234567806";
+        Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
+        given(bookService.viewBookDetails(isbn)).willReturn(book);
+        String eTag =
+                mockMvc.perform(
+                                MockMvcRequestBuilders.get("/books/" + isbn)
+                                        .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(
+                                MockMvcResultMatchers.header().string(HttpHeaders.VARY, "Accept"))
+                        .andReturn()
+                        .getResponse()
+                        .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("W/");
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/books/" + isbn)
+                                .accept("application/cbor")
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, "Accept"));
+    }
+
+    @Test
+    void whenGetBookListWithMatchingETagThenReturn304() throws Exception {
+        var catalogState = new CatalogState(2, Instant.parse("2023-10-01T10:57:36Z"));
+        given(bookService.viewCatalogState()).willReturn(catalogState);
+        given(bookService.viewCatalog()).willReturn(new Catalog(catalogState, List.of()));
+        String eTag =
+                mockMvc.perform(MockMvcRequestBuilders.get("/books"))
+                        .andExpect(MockMvcResultMatchers.status().isOk())
+                        .andReturn()
+                        .getResponse()
+                        .getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/books")
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    void whenBookListChangesWhileReadThenValidatorsDescribeBody() throws Exception {
+        var staleState = new CatalogState(2, Instant.parse("2023-10-01T10:57:36Z"));
+        var currentState = new CatalogState(1, Instant.parse("2023-10-01T10:58:00Z"));
+        Book book = Book.of("1234567806", "book1", "author1", 12.3, "publisher1");
+        given(bookService.viewCatalogState()).willReturn(staleState);
+        given(bookService.viewCatalog()).willReturn(new Catalog(currentState, List.of(book)));
+        String currentETag = "W/\"1-" + currentState.lastModifiedDate().toEpochMilli() + "\"";
+        mockMvc.perform(MockMvcRequestBuilders.get("/books"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, currentETag))
+                .andExpect(
+                        MockMvcResultMatchers.header()
+                                .dateValue(
+                                        HttpHeaders.LAST_MODIFIED,
+                                        currentState.lastModifiedDate().toEpochMilli()));
+    }
+
+    @Test
+    void whenGetBookPageThenReturnBooksAndNextCursor() throws Exception {
+        Book book = Book.of("1234567806", "book1", "author1", 12.3, "publisher1");
+        given(bookService.viewBookPage(null, 1)).willReturn(new BookPage(List.of(book), "MQ"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/books").param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].isbn").value("1234567806"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("MQ"));
+    }
+
+    @Test
+    void whenGetBooksByIsbnThenReturnKnownBooks() throws Exception {
+        Book book = Book.of("1234567806", "book1", "author1", 12.3, "publisher1");
+        given(bookService.viewBooks(List.of("1234567806", "1234567807"))).willReturn(List.of(book));
+        mockMvc.perform(MockMvcRequestBuilders.get("/books").param("isbn", "1234567806,1234567807"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].isbn").value("1234567806"));
+    }
+
+    @Test
+    void whenGetBookPageWithInvalidCursorThenReturn400() throws Exception {
+        given(bookService.viewBookPage("bad", 1)).willThrow(new InvalidCursorException("bad"));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/books")
+                                .param("limit", "1")
+                                .param("cursor", "bad"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void whenGetChangesThenReturnChangesAndNextCursor() throws Exception {
+        Instant changedDate = Instant.parse("2023-09-01T10:15:30Z");
+        given(bookService.viewBookChanges("c1", null))
+                .willReturn(
+                        new BookChanges(
+                                List.of(new BookChange("1234567806", true, changedDate, null)),
+                                "c2"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/books/changes").param("since", "c1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].isbn").value("1234567806"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].deleted").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("c2"));
+    }
+
+    @Test
+    void whenBookListStreamedThenWrittenWithinRequestDeadline() throws Exception {
+        Book book = Book.of("1234567806", "book1", "author1", 12.3, "publisher1");
+        var deadlineWhileWriting = new AtomicReference<Optional<RequestDeadline>>();
+        willAnswer(
+                        invocation -> {
+                            deadlineWhileWriting.set(RequestDeadline.current());
+                            invocation.<Consumer<Book>>getArgument(0).accept(book);
+                            return null;
+                        })
+                .given(bookService)
+                .streamBookList(any());
+        var deadline = RequestDeadline.after(Duration.ofSeconds(5));
+        var started = new AtomicReference<MvcResult>();
+        deadline.run(
+                () ->
+                        started.set(
+                                mockMvc.perform(
+                                                MockMvcRequestBuilders.get("/books")
+                                                        .header(
+                                                                HttpHeaders.ACCEPT,
+                                                                "application/x-ndjson"))
+                                        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                                        .andReturn()));
+        String content =
+                mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started.get()))
+                        .andExpect(MockMvcResultMatchers.status().isOk())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
+        assertThat(objectMapper.readValue(content, Book.class)).isEqualTo(book);
+        assertThat(deadlineWhileWriting.get()).contains(deadline);
+    }
+
     @Test
     void whenDeleteBookWithEmployeeRoleThenReturn204() throws Exception {
-        String isbn = "1234567543";
+        String isbn = "1234567547";
         mockMvc.perform(
                         MockMvcRequestBuilders.delete("/books/" + isbn)
                                 .with(
@@ -99,7 +294,7 @@ public class BookControllerMvcTests {
 
     @Test
     void whenDeleteBookWithCustomerRoleThenReturn403() throws Exception {
-        String isbn = "1234567543";
+        String isbn = "1234567547";
         mockMvc.perform(
                         MockMvcRequestBuilders.delete("/books/" + isbn)
                                 .with(
@@ -112,14 +307,14 @@ public class BookControllerMvcTests {
 
     @Test
     void whenDeleteBookNotAuthenticatedThenReturn401() throws Exception {
-        String isbn = "1234567543";
+        String isbn = "1234567547";
         mockMvc.perform(MockMvcRequestBuilders.delete("/books/" + isbn))
                 .andExpect(MockMvcResultMatchers.status().isUnauthorized());
     }
 
     @Test
     void whenPostBookWithEmployeeRoleThenReturn201() throws Exception {
-        String isbn = "1234567895";
+        String isbn = "1234567814";
         Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
         given(bookService.addBookToCatalog(book)).willReturn(book);
         mockMvc.perform(
@@ -136,7 +331,7 @@ public class BookControllerMvcTests {
 
     @Test
     void whenPostBookWithCustomerRoleThenReturn403() throws Exception {
-        String isbn = "1234567895";
+        String isbn = "1234567814";
         Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
         given(bookService.addBookToCatalog(book)).willReturn(book);
         mockMvc.perform(
@@ -153,7 +348,7 @@ public class BookControllerMvcTests {
 
     @Test
     void whenPostBookAndUnauthenticatedThenReturn401() throws Exception {
-        String isbn = "1234567895";
+        String isbn = "1234567814";
         Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
         given(bookService.addBookToCatalog(book)).willReturn(book);
         mockMvc.perform(
@@ -165,7 +360,7 @@ public class BookControllerMvcTests {
 
     @Test
     void whenPutBookWithEmployeeRoleThenReturn200() throws Exception {
-        String isbn = "1234567895";
+        String isbn = "1234567814";
         Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
         given(bookService.editBookDetails(isbn, book)).willReturn(book);
         mockMvc.perform(
@@ -182,7 +377,7 @@ public class BookControllerMvcTests {
 
     @Test
     void whenPutBookWithCustomerRoleThenReturn403() throws Exception {
-        String isbn = "1234567895";
+        String isbn = "1234567814";
         Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
         given(bookService.editBookDetails(isbn, book)).willReturn(book);
         mockMvc.perform(
@@ -199,7 +394,7 @@ public class BookControllerMvcTests {
 
     @Test
     void whenPutBookAndUnauthenticatedThenReturn401() throws Exception {
-        String isbn = "1234567895";
+        String isbn = "1234567814";
         Book book = Book.of(isbn, "book1", "author1", 12.3, "publisher1");
         given(bookService.editBookDetails(isbn, book)).willReturn(book);
         mockMvc.perform(
@@ -0,0 +1,76 @@
+package com.polarbookshop.catalogservice.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.polarbookshop.catalogservice.domain.BookImportRow;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+public class BookImportReaderTests {
+
+    private final BookImportReader reader =
+            new BookImportReader(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void whenNdjsonThenEachLineParsed() throws IOException {
+        String content =
+                """
+                {"isbn":"1234567891","title":"Book 1","author":"author","price":9.9}
+
+                {"isbn":"1234567892","title":"Book 2","author":"author","price":10.9}
+                not json
+                """;
+        List<BookImportRow> rows = read(content, MediaType.APPLICATION_NDJSON);
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).book().isbn()).isEqualTo("1234567891");
+        assertThat(rows.get(1).lineNumber()).isEqualTo(3);
+        assertThat(rows.get(2).book()).isNull();
+        assertThat(rows.get(2).parseError()).isNotNull();
+    }
+
+    @Test
+    void whenCsvThenColumnsMappedFromHeader() throws IOException {
+        String content =
+                """
+                title,isbn,price,author,publisher
+                Book 1,1234567891,9.9,author,"Polar, Inc."
+                Book 2,1234567892,not a price,author,
+                """;
+        List<BookImportRow> rows = read(content, MediaType.valueOf("text/csv"));
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).lineNumber()).isEqualTo(2);
+        assertThat(rows.get(0).book().title()).isEqualTo("Book 1");
+        assertThat(rows.get(0).book().price()).isEqualTo(9.9);
+        assertThat(rows.get(0).book().publisher()).isEqualTo("Polar, Inc.");
+        assertThat(rows.get(1).parseError()).isNotNull();
+    }
+
+    @Test
+    void whenCsvFieldQuotedThenCommasAndLineBreaksKept() throws IOException {
+        String content =
+                """
+                "isbn","title",author,price
+
+                1234567891,"Polar Bears, Vol. 2
+                Revised",author,9.9
+                1234567892,Book 2,author,10.9
+                """;
+        List<BookImportRow> rows = read(content, MediaType.valueOf("text/csv"));
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).lineNumber()).isEqualTo(3);
+        assertThat(rows.get(0).book().title()).isEqualTo("Polar Bears, Vol. 2\nRevised");
+        assertThat(rows.get(1).lineNumber()).isEqualTo(5);
+        assertThat(rows.get(1).book().isbn()).isEqualTo("1234567892");
+    }
+
+    private List<BookImportRow> read(String content, MediaType contentType) throws IOException {
+        var inputStream = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        return reader.read(inputStream, contentType).toList();
+    }
+}
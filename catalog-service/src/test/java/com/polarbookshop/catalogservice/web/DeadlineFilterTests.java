@@ -0,0 +1,77 @@
+package com.polarbookshop.catalogservice.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.polarbookshop.catalogservice.config.RequestDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class DeadlineFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DeadlineFilter filter = new DeadlineFilter(Duration.ofSeconds(5), meterRegistry);
+
+    @Test
+    void whenHeaderSentThenDeadlineBoundDuringRequest() throws Exception {
+        var remaining = new AtomicReference<Duration>();
+        filter.doFilter(
+                requestWithTimeout("2000"),
+                new MockHttpServletResponse(),
+                (request, response) ->
+                        remaining.set(RequestDeadline.current().orElseThrow().remaining()));
+        assertThat(remaining.get()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(2));
+        assertThat(RequestDeadline.current()).isEmpty();
+    }
+
+    @Test
+    void whenHeaderExceedsMaxTimeoutThenCapped() throws Exception {
+        var remaining = new AtomicReference<Duration>();
+        filter.doFilter(
+                requestWithTimeout("60000"),
+                new MockHttpServletResponse(),
+                (request, response) ->
+                        remaining.set(RequestDeadline.current().orElseThrow().remaining()));
+        assertThat(remaining.get()).isLessThanOrEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void whenHeaderMissingOrMalformedThenNoDeadline() throws Exception {
+        var bound = new AtomicReference<Optional<RequestDeadline>>();
+        filter.doFilter(
+                requestWithTimeout("soon"),
+                new MockHttpServletResponse(),
+                (request, response) -> bound.set(RequestDeadline.current()));
+        assertThat(bound.get()).isEmpty();
+    }
+
+    @Test
+    void whenBudgetAlreadySpentThenRejectedWithoutProcessing() throws Exception {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(
+                requestWithTimeout("0"),
+                response,
+                (request, res) -> {
+                    throw new AssertionError("The request should not be processed");
+                });
+        assertThat(response.getStatus()).isEqualTo(504);
+        assertThat(
+                        meterRegistry
+                                .get("polar.deadline.exceeded")
+                                .tag("stage", "arrival")
+                                .counter()
+                                .count())
+                .isEqualTo(1.0);
+    }
+
+    private static MockHttpServletRequest requestWithTimeout(String timeout) {
+        var request = new MockHttpServletRequest("GET", "/books/1234567890");
+        request.addHeader(RequestDeadline.HEADER, timeout);
+        return request;
+    }
+}
@@ -11,7 +11,7 @@ import java.util.function.Function;
 @Configuration
 public class DispatchingFunctions {
 
-    private final Logger log = LoggerFactory.getLogger(DispatcherServiceApplication.class);
+    private final Logger log = LoggerFactory.getLogger(DispatchingFunctions.class);
 
     @Bean
     public Function<OrderAcceptedMessage, Long> pack() {
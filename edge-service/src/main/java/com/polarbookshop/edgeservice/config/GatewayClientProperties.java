@@ -0,0 +1,16 @@
+package com.polarbookshop.edgeservice.config;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import reactor.netty.http.HttpProtocol;
+
+@ConfigurationProperties(prefix = "polar.gateway")
+public record GatewayClientProperties(
+        /**
+         * Protocols the gateway uses to reach the routed services. The HTTP client is shared by
+         * all routes, so H2C on its own (prior knowledge) is only safe once every upstream,
+         * including the SPA, speaks HTTP/2; H2C with HTTP11 upgrades where it can. H2 needs
+         * https route URIs.
+         */
+        @DefaultValue("HTTP11") List<HttpProtocol> protocols) {}
@@ -0,0 +1,69 @@
+package com.polarbookshop.edgeservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+
+@Configuration
+@EnableConfigurationProperties(GatewayClientProperties.class)
+public class HttpClientConfig {
+
+    private static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
+    @Bean
+    public HttpClientCustomizer protocolHttpClientCustomizer(GatewayClientProperties properties) {
+        var protocols = properties.protocols();
+        return httpClient -> {
+            var client = httpClient.protocol(protocols.toArray(HttpProtocol[]::new));
+            // ALPN has to be part of the TLS setup for h2, which replaces the gateway's own.
+            return protocols.contains(HttpProtocol.H2)
+                    ? client.secure(spec -> spec.sslContext(Http2SslContextSpec.forClient()))
+                    : client;
+        };
+    }
+
+    // Tells the downstream service how long the gateway waits for its response, or less if the
+    // caller sent a shorter budget, so that it stops working on requests nobody waits for.
+    @Bean
+    public GlobalFilter requestTimeoutFilter(HttpClientProperties httpClientProperties) {
+        Duration responseTimeout = httpClientProperties.getResponseTimeout();
+        return (exchange, chain) -> {
+            if (responseTimeout == null) {
+                return chain.filter(exchange);
+            }
+            long budget =
+                    Math.min(
+                            responseTimeout.toMillis(),
+                            parseTimeout(
+                                    exchange.getRequest()
+                                            .getHeaders()
+                                            .getFirst(REQUEST_TIMEOUT_HEADER)));
+            var request =
+                    exchange.getRequest()
+                            .mutate()
+                            .headers(
+                                    headers ->
+                                            headers.set(
+                                                    REQUEST_TIMEOUT_HEADER, Long.toString(budget)))
+                            .build();
+            return chain.filter(exchange.mutate().request(request).build());
+        };
+    }
+
+    private static long parseTimeout(String header) {
+        if (header == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
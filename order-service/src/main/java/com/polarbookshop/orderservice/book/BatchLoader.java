@@ -0,0 +1,82 @@
+package com.polarbookshop.orderservice.book;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Collects the keys asked for within a short window and loads them with one call.
+ *
+ * <p>A batch is sent once it holds {@code maxSize} keys or once {@code window} has passed since
+ * its first key, whichever comes first. Each caller then gets the value for its own key, or
+ * completes empty if the call didn't return one. A failed call fails every caller in the batch.
+ */
+class BatchLoader<K, V> {
+
+    // Serializes requests emitted by callers on different threads, queuing rather than spinning.
+    private final FluxSink<Request<K, V>> requests;
+    private final Function<List<K>, Mono<Map<K, V>>> loadAll;
+    private final DistributionSummary batchSize;
+
+    BatchLoader(
+            String name,
+            int maxSize,
+            Duration window,
+            Function<List<K>, Mono<Map<K, V>>> loadAll,
+            MeterRegistry meterRegistry) {
+        this.loadAll = loadAll;
+        this.batchSize =
+                DistributionSummary.builder("polar.batch.size")
+                        .description("Distinct keys loaded per batch")
+                        .tag("name", name)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+        var sink = new AtomicReference<FluxSink<Request<K, V>>>();
+        Flux.create(sink::set).bufferTimeout(maxSize, window).flatMap(this::dispatch).subscribe();
+        this.requests = sink.get();
+    }
+
+    Mono<V> load(K key) {
+        return Mono.defer(
+                () -> {
+                    Sinks.One<V> result = Sinks.one();
+                    requests.next(new Request<>(key, result));
+                    return result.asMono();
+                });
+    }
+
+    private Mono<Void> dispatch(List<Request<K, V>> batch) {
+        List<K> keys = batch.stream().map(Request::key).distinct().toList();
+        batchSize.record(keys.size());
+        return loadAll.apply(keys)
+                .defaultIfEmpty(Map.of())
+                .doOnNext(values -> batch.forEach(request -> request.complete(values)))
+                .doOnError(error -> batch.forEach(request -> request.fail(error)))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private record Request<K, V>(K key, Sinks.One<V> result) {
+
+        void complete(Map<K, V> values) {
+            V value = values.get(key);
+            if (value != null) {
+                result.tryEmitValue(value);
+            } else {
+                result.tryEmitEmpty();
+            }
+        }
+
+        void fail(Throwable error) {
+            result.tryEmitError(error);
+        }
+    }
+}
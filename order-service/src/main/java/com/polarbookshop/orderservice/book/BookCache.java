@@ -0,0 +1,148 @@
+package com.polarbookshop.orderservice.book;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.polarbookshop.orderservice.config.BookCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the books looked up in the Catalog Service, so that orders don't wait on it.
+ *
+ * <p>A book older than {@code refreshAfterWrite} is still served right away while it's reloaded
+ * in the background. If the reload fails, the stale book is kept until {@code
+ * expireAfterWrite}. ISBNs the catalog doesn't know are remembered for {@code
+ * expireAfterNotFound}. Failed lookups aren't cached at all.
+ *
+ * <p>Concurrent lookups of a book that's being loaded share its load. The share of lookups that
+ * started a load or joined one in flight is published as {@code polar.singleflight.requests},
+ * since the cache's own hit count doesn't tell these joins apart from lookups of a loaded book.
+ */
+class BookCache {
+
+    private static final String CACHE_NAME = "books";
+    private static final String LOOKUP_NAME = "catalog-book-lookup";
+
+    private final AsyncLoadingCache<String, Optional<Book>> cache;
+    private final BookLoader bookLoader;
+    private final AtomicInteger loadsInFlight = new AtomicInteger();
+    private final Counter startedLoads;
+    private final Counter coalescedLoads;
+
+    BookCache(
+            BookCacheProperties properties,
+            Function<String, Mono<Book>> loader,
+            MeterRegistry meterRegistry) {
+        this.bookLoader = new BookLoader(loader, meterRegistry);
+        this.cache =
+                Caffeine.newBuilder()
+                        .maximumSize(properties.maximumSize())
+                        .refreshAfterWrite(properties.refreshAfterWrite())
+                        .expireAfter(expiry(properties))
+                        .recordStats()
+                        .buildAsync(bookLoader);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+        this.startedLoads = requestCounter("started", meterRegistry);
+        this.coalescedLoads = requestCounter("coalesced", meterRegistry);
+        Gauge.builder("polar.singleflight.inflight", loadsInFlight, AtomicInteger::get)
+                .description("Calls currently shared between callers")
+                .tag("name", LOOKUP_NAME)
+                .register(meterRegistry);
+    }
+
+    // Callers that give up don't cancel the load for the others waiting on it.
+    Mono<Book> get(String isbn) {
+        return Mono.fromFuture(() -> lookUp(isbn), true).flatMap(Mono::justOrEmpty);
+    }
+
+    // The cache only calls the mapping function when no load of the ISBN is in flight, so a
+    // lookup that gets back an incomplete future without calling it has joined another's load.
+    private CompletableFuture<Optional<Book>> lookUp(String isbn) {
+        var started = new boolean[1];
+        CompletableFuture<Optional<Book>> book =
+                cache.get(
+                        isbn,
+                        (key, executor) -> {
+                            started[0] = true;
+                            loadsInFlight.incrementAndGet();
+                            return bookLoader
+                                    .asyncLoad(key, executor)
+                                    .whenComplete(
+                                            (loaded, error) -> loadsInFlight.decrementAndGet());
+                        });
+        if (started[0]) {
+            startedLoads.increment();
+        } else if (!book.isDone()) {
+            coalescedLoads.increment();
+        }
+        return book;
+    }
+
+    private static Counter requestCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("polar.singleflight.requests")
+                .description("Requests that started a call or joined one already in flight")
+                .tag("name", LOOKUP_NAME)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Expiry<String, Optional<Book>> expiry(BookCacheProperties properties) {
+        long foundNanos = properties.expireAfterWrite().toNanos();
+        long notFoundNanos = properties.expireAfterNotFound().toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String isbn, Optional<Book> book, long currentTime) {
+                return book.isPresent() ? foundNanos : notFoundNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(
+                    String isbn, Optional<Book> book, long currentTime, long currentDuration) {
+                return expireAfterCreate(isbn, book, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(
+                    String isbn, Optional<Book> book, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private record BookLoader(Function<String, Mono<Book>> loader, MeterRegistry meterRegistry)
+            implements AsyncCacheLoader<String, Optional<Book>> {
+
+        @Override
+        public CompletableFuture<Optional<Book>> asyncLoad(String isbn, Executor executor) {
+            return loader.apply(isbn).map(Optional::of).defaultIfEmpty(Optional.empty()).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Optional<Book>> asyncReload(
+                String isbn, Optional<Book> oldBook, Executor executor) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return asyncLoad(isbn, executor)
+                    .whenComplete(
+                            (book, error) -> {
+                                String outcome = error == null ? "success" : "error";
+                                sample.stop(
+                                        Timer.builder("polar.cache.refresh")
+                                                .description("Time taken to reload a stale entry")
+                                                .tag("cache", CACHE_NAME)
+                                                .tag("outcome", outcome)
+                                                .register(meterRegistry));
+                            });
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.polarbookshop.orderservice.book;
 
+import com.polarbookshop.orderservice.config.BookCacheProperties;
+import com.polarbookshop.orderservice.config.ClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
-import lombok.RequiredArgsConstructor;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
@@ -9,20 +17,95 @@ import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 @Component
-@RequiredArgsConstructor
 public class BookClient {
 
+    /** Budget the Catalog Service gets for a lookup, so it stops working when we stop waiting. */
+    static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private static final ParameterizedTypeReference<List<Book>> BOOK_LIST =
+            new ParameterizedTypeReference<>() {};
+
     private final WebClient webClient;
+    private final BookCache bookCache;
 
+    public BookClient(
+            WebClient webClient,
+            ClientProperties clientProperties,
+            BookCacheProperties bookCacheProperties,
+            MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.bookCache =
+                new BookCache(
+                        bookCacheProperties,
+                        bookLoader(clientProperties, meterRegistry),
+                        meterRegistry);
+    }
+
+    // Lookups are served from the cache whenever possible, even while a stale book is being
+    // refreshed. Concurrent lookups of a missing book, as for a book on promotion, share one
+    // load.
     public Mono<Book> getBookByIsbn(String isbn) {
+        return bookCache.get(isbn).onErrorResume(Exception.class, e -> Mono.empty());
+    }
+
+    // Books missing from the cache are looked up together with the others missed at about the
+    // same time.
+    private Function<String, Mono<Book>> bookLoader(
+            ClientProperties clientProperties, MeterRegistry meterRegistry) {
+        if (clientProperties.catalogServiceBatchSize() <= 1) {
+            return this::fetchBook;
+        }
+        var batchLoader =
+                new BatchLoader<>(
+                        "catalog-book-lookup",
+                        clientProperties.catalogServiceBatchSize(),
+                        clientProperties.catalogServiceBatchWindow(),
+                        this::fetchBooks,
+                        meterRegistry);
+        return batchLoader::load;
+    }
+
+    // Failures are signalled as errors rather than as an empty result, so that the cache only
+    // remembers the ISBNs the catalog really doesn't know.
+    private Mono<Book> fetchBook(String isbn) {
         return webClient
                 .get()
                 .uri("/books/" + isbn)
+                .header(REQUEST_TIMEOUT_HEADER, Long.toString(TIMEOUT.toMillis()))
                 .retrieve()
                 .bodyToMono(Book.class)
-                .timeout(Duration.ofSeconds(3), Mono.empty())
+                .timeout(TIMEOUT)
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
-                .retryWhen(Retry.backoff(3, Duration.ofMillis(100)))
-                .onErrorResume(Exception.class, e -> Mono.empty());
+                .retryWhen(
+                        Retry.backoff(3, Duration.ofMillis(100))
+                                .filter(e -> !(e instanceof TimeoutException)));
+    }
+
+    private Mono<Map<String, Book>> fetchBooks(List<String> isbns) {
+        return webClient
+                .get()
+                .uri(
+                        uriBuilder ->
+                                uriBuilder
+                                        .path("/books")
+                                        .queryParam("isbn", String.join(",", isbns))
+                                        .build())
+                .header(REQUEST_TIMEOUT_HEADER, Long.toString(TIMEOUT.toMillis()))
+                .retrieve()
+                .bodyToMono(BOOK_LIST)
+                .timeout(TIMEOUT)
+                .retryWhen(
+                        Retry.backoff(3, Duration.ofMillis(100))
+                                .filter(e -> !(e instanceof TimeoutException)))
+                .map(
+                        books ->
+                                books.stream()
+                                        .collect(
+                                                Collectors.toMap(
+                                                        Book::isbn,
+                                                        Function.identity(),
+                                                        (first, second) -> first)));
     }
 }
@@ -0,0 +1,19 @@
+package com.polarbookshop.orderservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.cache.books")
+public record BookCacheProperties(
+        /** Maximum number of books kept in memory before the least used ones are evicted. */
+        @DefaultValue("10000") long maximumSize,
+        /**
+         * How long a cached book is considered fresh. Past that, it's still served while it's
+         * reloaded from the Catalog Service in the background.
+         */
+        @DefaultValue("1m") Duration refreshAfterWrite,
+        /** How long a cached book may be served at all, however stale. */
+        @DefaultValue("10m") Duration expireAfterWrite,
+        /** How long an ISBN the Catalog Service doesn't know is remembered as unknown. */
+        @DefaultValue("30s") Duration expireAfterNotFound) {}
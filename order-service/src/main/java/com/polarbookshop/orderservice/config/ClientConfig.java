@@ -1,13 +1,47 @@
 package com.polarbookshop.orderservice.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.util.List;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.ReactorNettyHttpClientMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
 
 @Configuration
 public class ClientConfig {
     @Bean
-    public WebClient webClient(ClientProperties clientProperties, WebClient.Builder builder) {
-        return builder.baseUrl(clientProperties.catalogServiceUri().toString()).build();
+    public WebClient webClient(
+            ClientProperties clientProperties,
+            WebClient.Builder builder,
+            Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        var cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        // Without an explicit media type the decoder claims JSON as well, and JSON bodies then
+        // fail to parse as CBOR.
+        var cborDecoder = new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR);
+        return builder.baseUrl(clientProperties.catalogServiceUri().toString())
+                .defaultHeaders(
+                        headers -> headers.setAccept(clientProperties.catalogServiceAccept()))
+                .codecs(configurer -> configurer.customCodecs().register(cborDecoder))
+                .build();
+    }
+
+    @Bean
+    public ReactorNettyHttpClientMapper catalogServiceHttpClientMapper(
+            ClientProperties clientProperties) {
+        List<HttpProtocol> protocols = clientProperties.catalogServiceProtocols();
+        return httpClient -> {
+            var client =
+                    httpClient
+                            .compress(clientProperties.catalogServiceCompression())
+                            .protocol(protocols.toArray(HttpProtocol[]::new));
+            return protocols.contains(HttpProtocol.H2)
+                    ? client.secure(spec -> spec.sslContext(Http2SslContextSpec.forClient()))
+                    : client;
+        };
     }
 }
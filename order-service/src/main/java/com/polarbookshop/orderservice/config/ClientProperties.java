@@ -2,7 +2,34 @@ package com.polarbookshop.orderservice.config;
 
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.MediaType;
+import reactor.netty.http.HttpProtocol;
 
 @ConfigurationProperties(prefix = "polar")
-public record ClientProperties(@NotNull URI catalogServiceUri) {}
+public record ClientProperties(
+        /** Base URI of the Catalog Service. */
+        @NotNull URI catalogServiceUri,
+        /**
+         * Representations asked for when calling the Catalog Service, in order of preference.
+         * Keeping JSON as a weighted fallback lets older catalog instances still answer.
+         */
+        @DefaultValue({"application/cbor", "application/json;q=0.9"})
+                List<MediaType> catalogServiceAccept,
+        /** Whether to ask the Catalog Service for gzip-compressed responses. */
+        @DefaultValue("true") boolean catalogServiceCompression,
+        /**
+         * Protocols used to reach the Catalog Service: H2C for cleartext HTTP/2 with prior
+         * knowledge, H2C and HTTP11 to upgrade from HTTP/1.1, or H2 over TLS with an https URI.
+         */
+        @DefaultValue("HTTP11") List<HttpProtocol> catalogServiceProtocols,
+        /**
+         * Most books looked up with one call to the Catalog Service. A value of 1 looks up every
+         * book on its own.
+         */
+        @DefaultValue("50") int catalogServiceBatchSize,
+        /** How long a lookup may wait for others to share a call to the Catalog Service with. */
+        @DefaultValue("5ms") Duration catalogServiceBatchWindow) {}
@@ -0,0 +1,22 @@
+package com.polarbookshop.orderservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "polar.outbox")
+public record OutboxProperties(
+        /** Whether to relay the events in the outbox to the broker. */
+        @DefaultValue("true") boolean enabled,
+        /** How often the outbox is checked for events once it has been drained. */
+        @DefaultValue("500ms") Duration pollInterval,
+        /** Most events sent to the broker before waiting for their confirms. */
+        @DefaultValue("100") int batchSize,
+        /**
+         * Whether an event is only removed from the outbox once the broker has confirmed it.
+         * Requires correlated publisher confirms on the connection and the confirm header on the
+         * producer binding.
+         */
+        @DefaultValue("true") boolean awaitConfirms,
+        /** How long to wait for the broker to confirm a batch before sending it again later. */
+        @DefaultValue("5s") Duration confirmTimeout) {}
@@ -0,0 +1,62 @@
+package com.polarbookshop.orderservice.event;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Holds the order accepted events until they reach the broker. An event is added within the
+ * transaction saving its order, so it exists if and only if the order was accepted.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderAcceptedOutbox {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> add(Long orderId) {
+        return databaseClient
+                .sql("insert into order_accepted_outbox (order_id) values (:orderId)")
+                .bind("orderId", orderId)
+                .then();
+    }
+
+    // Locked rows are skipped, so several instances can relay the outbox without sending the
+    // same events at the same time. The locks are held until the calling transaction ends. The
+    // age of each event is computed by the database, whose clock set its creation date.
+    Flux<OutboxEvent> lockOldest(int limit) {
+        return databaseClient
+                .sql(
+                        """
+                        select id, order_id,
+                          (extract(epoch from clock_timestamp() - created_date) * 1000000)::bigint
+                            as age_micros
+                        from order_accepted_outbox
+                        order by id limit :limit for update skip locked
+                        """)
+                .bind("limit", limit)
+                .map(
+                        row ->
+                                new OutboxEvent(
+                                        row.get("id", Long.class),
+                                        row.get("order_id", Long.class),
+                                        Duration.of(
+                                                row.get("age_micros", Long.class),
+                                                ChronoUnit.MICROS),
+                                        System.nanoTime()))
+                .all();
+    }
+
+    Mono<Long> removeAll(List<Long> ids) {
+        return databaseClient
+                .sql("delete from order_accepted_outbox where id = any(:ids)")
+                .bind("ids", ids.toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,15 @@
+package com.polarbookshop.orderservice.event;
+
+import java.time.Duration;
+
+/**
+ * An event read from the outbox, with its age as measured by the database clock when it was read
+ * and the {@link System#nanoTime()} of that read, so that its age can be followed without
+ * comparing the clocks of the database and the application.
+ */
+record OutboxEvent(Long id, Long orderId, Duration ageWhenRead, long readNanos) {
+
+    Duration age() {
+        return ageWhenRead.plusNanos(System.nanoTime() - readNanos);
+    }
+}
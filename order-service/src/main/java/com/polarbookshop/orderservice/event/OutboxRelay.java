@@ -0,0 +1,161 @@
+package com.polarbookshop.orderservice.event;
+
+import com.polarbookshop.orderservice.config.OutboxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Sends the events in the {@link OrderAcceptedOutbox} to the broker, oldest first.
+ *
+ * <p>Each batch is sent without waiting, then its publisher confirms are awaited together, and
+ * only the confirmed events are removed from the outbox. Events that were not confirmed in time
+ * are sent again with a later batch, so consumers may see an event more than once.
+ *
+ * <p>The time from an order being saved to its event being confirmed is published as {@code
+ * polar.outbox.lag}, and the number of events per batch as {@code polar.outbox.batch.size}.
+ */
+@Component
+@ConditionalOnProperty(name = "polar.outbox.enabled", matchIfMissing = true)
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final String BINDING_NAME = "acceptOrder-out-0";
+
+    private final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OrderAcceptedOutbox outbox;
+    private final StreamBridge streamBridge;
+    private final TransactionalOperator transactionalOperator;
+    private final OutboxProperties properties;
+    private final DistributionSummary batchSize;
+    private final Timer lag;
+    private final Counter unconfirmed;
+    private volatile Disposable relaying;
+
+    public OutboxRelay(
+            OrderAcceptedOutbox outbox,
+            StreamBridge streamBridge,
+            TransactionalOperator transactionalOperator,
+            OutboxProperties properties,
+            MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.streamBridge = streamBridge;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = properties;
+        this.batchSize =
+                DistributionSummary.builder("polar.outbox.batch.size")
+                        .description("Events sent to the broker per batch")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+        this.lag =
+                Timer.builder("polar.outbox.lag")
+                        .description("Time from an event being stored to the broker confirming it")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+        this.unconfirmed =
+                Counter.builder("polar.outbox.unconfirmed")
+                        .description("Events the broker did not confirm, left for a later batch")
+                        .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        relaying =
+                Flux.interval(properties.pollInterval())
+                        .onBackpressureDrop()
+                        .concatMap(tick -> drain(), 1)
+                        .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        relaying.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return relaying != null && !relaying.isDisposed();
+    }
+
+    // Keeps relaying without pausing for as long as full batches are confirmed.
+    Mono<Void> drain() {
+        return relayBatch()
+                .expand(
+                        confirmed ->
+                                confirmed == properties.batchSize() ? relayBatch() : Mono.empty())
+                .onErrorResume(
+                        error -> {
+                            logger.warn("Relaying the order accepted events failed", error);
+                            return Mono.empty();
+                        })
+                .then();
+    }
+
+    private Mono<Integer> relayBatch() {
+        return transactionalOperator.transactional(
+                outbox.lockOldest(properties.batchSize())
+                        .collectList()
+                        .flatMap(events -> events.isEmpty() ? Mono.just(0) : relay(events)));
+    }
+
+    private Mono<Integer> relay(List<OutboxEvent> events) {
+        batchSize.record(events.size());
+        return Mono.fromCallable(() -> events.stream().map(this::send).toList())
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(Publication::confirmedEvent)
+                .doOnNext(event -> lag.record(event.age()))
+                .map(OutboxEvent::id)
+                .collectList()
+                .flatMap(
+                        ids -> {
+                            unconfirmed.increment(events.size() - ids.size());
+                            return ids.isEmpty()
+                                    ? Mono.just(0)
+                                    : outbox.removeAll(ids).thenReturn(ids.size());
+                        });
+    }
+
+    private Publication send(OutboxEvent event) {
+        var correlation = new CorrelationData(String.valueOf(event.id()));
+        Message<OrderAcceptedMessage> message =
+                MessageBuilder.withPayload(new OrderAcceptedMessage(event.orderId()))
+                        .setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, correlation)
+                        .build();
+        if (!streamBridge.send(BINDING_NAME, message)) {
+            return new Publication(event, Mono.just(false));
+        }
+        if (!properties.awaitConfirms()) {
+            return new Publication(event, Mono.just(true));
+        }
+        return new Publication(
+                event,
+                Mono.fromFuture(correlation.getFuture())
+                        .map(CorrelationData.Confirm::isAck)
+                        .timeout(properties.confirmTimeout(), Mono.just(false)));
+    }
+
+    private record Publication(OutboxEvent event, Mono<Boolean> acked) {
+
+        Mono<OutboxEvent> confirmedEvent() {
+            return acked.filter(Boolean::booleanValue).map(ack -> event);
+        }
+    }
+}
@@ -0,0 +1,3 @@
+package com.polarbookshop.orderservice.order.domain;
+
+public record CartItem(String isbn, int quantity) {}
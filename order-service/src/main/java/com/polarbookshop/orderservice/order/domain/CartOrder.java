@@ -0,0 +1,5 @@
+package com.polarbookshop.orderservice.order.domain;
+
+import java.util.List;
+
+public record CartOrder(Order order, List<OrderLine> lines) {}
@@ -0,0 +1,20 @@
+package com.polarbookshop.orderservice.order.domain;
+
+/** One book of an order placed from a cart, with the status of its own catalog lookup. */
+public record OrderLine(
+        Long id,
+        Long orderId,
+        String bookIsbn,
+        String bookName,
+        Double bookPrice,
+        Integer quantity,
+        OrderStatus status) {
+    public static OrderLine of(
+            String bookIsbn,
+            String bookName,
+            Double bookPrice,
+            Integer quantity,
+            OrderStatus status) {
+        return new OrderLine(null, null, bookIsbn, bookName, bookPrice, quantity, status);
+    }
+}
@@ -0,0 +1,101 @@
+package com.polarbookshop.orderservice.order.domain;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Statement;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Stores the lines of cart orders. It is built on {@link DatabaseClient} because a Spring Data
+ * repository saves a collection one insert at a time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderLineRepository {
+
+    private static final String INSERT_SQL =
+            """
+            insert into order_line (order_id, book_isbn, book_name, book_price, quantity, status)
+            values ($1, $2, $3, $4, $5, $6)
+            """;
+
+    private static final String FIND_BY_ORDER_SQL =
+            """
+            select id, order_id, book_isbn, book_name, book_price, quantity, status
+            from order_line where order_id = :orderId order by id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /** Emits the lines of an order in the order they were placed in the cart. */
+    public Flux<OrderLine> findAllByOrderId(Long orderId) {
+        return databaseClient
+                .sql(FIND_BY_ORDER_SQL)
+                .bind("orderId", orderId)
+                .map(
+                        row ->
+                                new OrderLine(
+                                        row.get("id", Long.class),
+                                        row.get("order_id", Long.class),
+                                        row.get("book_isbn", String.class),
+                                        row.get("book_name", String.class),
+                                        row.get("book_price", Double.class),
+                                        row.get("quantity", Integer.class),
+                                        OrderStatus.valueOf(row.get("status", String.class))))
+                .all();
+    }
+
+    /**
+     * Inserts all the lines of an order with one batched statement, within the current
+     * transaction if there is one, and emits them with their ids in the same order.
+     */
+    public Flux<OrderLine> insertAll(Long orderId, List<OrderLine> lines) {
+        if (lines.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient
+                .inConnectionMany(connection -> insertReturningIds(connection, orderId, lines))
+                .zipWithIterable(
+                        lines,
+                        (id, line) ->
+                                new OrderLine(
+                                        id,
+                                        orderId,
+                                        line.bookIsbn(),
+                                        line.bookName(),
+                                        line.bookPrice(),
+                                        line.quantity(),
+                                        line.status()));
+    }
+
+    private static Flux<Long> insertReturningIds(
+            Connection connection, Long orderId, List<OrderLine> lines) {
+        Statement statement = connection.createStatement(INSERT_SQL).returnGeneratedValues("id");
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            bindLine(statement, orderId, lines.get(i));
+        }
+        return Flux.from(statement.execute())
+                .concatMap(result -> result.map((row, metadata) -> row.get("id", Long.class)));
+    }
+
+    private static void bindLine(Statement statement, Long orderId, OrderLine line) {
+        statement.bind(0, orderId).bind(1, line.bookIsbn());
+        if (line.bookName() != null) {
+            statement.bind(2, line.bookName());
+        } else {
+            statement.bindNull(2, String.class);
+        }
+        if (line.bookPrice() != null) {
+            statement.bind(3, line.bookPrice());
+        } else {
+            statement.bindNull(3, Double.class);
+        }
+        statement.bind(4, line.quantity()).bind(5, line.status().name());
+    }
+}
@@ -2,7 +2,10 @@ package com.polarbookshop.orderservice.order.domain;
 
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public interface OrderRepository extends ReactiveCrudRepository<Order, Long> {
     Flux<Order> findAllByCreatedBy(String username);
+
+    Mono<Order> findByIdAndCreatedBy(Long id, String username);
 }
@@ -2,15 +2,15 @@ package com.polarbookshop.orderservice.order.domain;
 
 import com.polarbookshop.orderservice.book.Book;
 import com.polarbookshop.orderservice.book.BookClient;
-import com.polarbookshop.orderservice.event.OrderAcceptedMessage;
+import com.polarbookshop.orderservice.event.OrderAcceptedOutbox;
 import com.polarbookshop.orderservice.event.OrderDispatchedMessage;
-import com.polarbookshop.orderservice.event.OrderFunctions;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -18,16 +18,25 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class OrderService {
 
-    private final Logger logger = LoggerFactory.getLogger(OrderFunctions.class);
+    private final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
     private final OrderRepository orderRepository;
+    private final OrderLineRepository orderLineRepository;
     private final BookClient bookClient;
-    private final StreamBridge streamBridge;
+    private final OrderAcceptedOutbox orderAcceptedOutbox;
+    private final TransactionalOperator transactionalOperator;
 
     public Flux<Order> getOrders(String username) {
         return orderRepository.findAllByCreatedBy(username);
     }
 
+    // Lines of orders placed by someone else are not shown, as if the order didn't exist.
+    public Flux<OrderLine> getOrderLines(Long orderId, String username) {
+        return orderRepository
+                .findByIdAndCreatedBy(orderId, username)
+                .flatMapMany(order -> orderLineRepository.findAllByOrderId(order.id()));
+    }
+
     @Transactional
     public Mono<Order> submitOrder(String isbn, int quantity) {
         return bookClient
@@ -35,16 +44,55 @@ public class OrderService {
                 .map(book -> buildAcceptedOrder(book, quantity))
                 .defaultIfEmpty(buildRejectOrder(isbn, quantity))
                 .flatMap(orderRepository::save)
-                .doOnNext(this::publishOrderAcceptedEvent);
+                .flatMap(this::addOrderAcceptedEvent);
+    }
+
+    // All the books are looked up at once, which the book client sends as a single catalog
+    // request, and before the transaction starts so that no connection is held meanwhile. A
+    // cart is only accepted if every book in it is, and then gets a single accepted event.
+    public Mono<CartOrder> submitCartOrder(List<CartItem> items) {
+        return Flux.fromIterable(items)
+                .flatMapSequential(
+                        item ->
+                                bookClient
+                                        .getBookByIsbn(item.isbn())
+                                        .map(book -> buildAcceptedLine(book, item.quantity()))
+                                        .defaultIfEmpty(
+                                                buildRejectedLine(item.isbn(), item.quantity())))
+                .collectList()
+                .flatMap(lines -> transactionalOperator.transactional(saveCartOrder(lines)));
     }
 
-    private void publishOrderAcceptedEvent(Order order) {
-        if (OrderStatus.ACCEPTED.equals(order.status())) {
-            var acceptedMessage = new OrderAcceptedMessage(order.id());
-            logger.info("Sending order accepted event with id: {}", order.id());
-            boolean result = streamBridge.send("acceptOrder-out-0", acceptedMessage);
-            logger.info("Result of sending data for order with id {}: {}", order.id(), result);
+    private Mono<CartOrder> saveCartOrder(List<OrderLine> lines) {
+        boolean accepted =
+                lines.stream().allMatch(line -> OrderStatus.ACCEPTED.equals(line.status()));
+        int quantity = lines.stream().mapToInt(OrderLine::quantity).sum();
+        Order order =
+                Order.of(
+                        null,
+                        null,
+                        null,
+                        quantity,
+                        accepted ? OrderStatus.ACCEPTED : OrderStatus.REJECTED);
+        return orderRepository
+                .save(order)
+                .flatMap(this::addOrderAcceptedEvent)
+                .flatMap(
+                        savedOrder ->
+                                orderLineRepository
+                                        .insertAll(savedOrder.id(), lines)
+                                        .collectList()
+                                        .map(savedLines -> new CartOrder(savedOrder, savedLines)));
+    }
+
+    // The event is stored with the order, and sent to the broker by the outbox relay once the
+    // transaction has committed.
+    private Mono<Order> addOrderAcceptedEvent(Order order) {
+        if (!OrderStatus.ACCEPTED.equals(order.status())) {
+            return Mono.just(order);
         }
+        logger.info("Adding order accepted event with id: {}", order.id());
+        return orderAcceptedOutbox.add(order.id()).thenReturn(order);
     }
 
     public static Order buildAcceptedOrder(Book book, int quantity) {
@@ -55,6 +103,15 @@ public class OrderService {
         return Order.of(isbn, null, null, quantity, OrderStatus.REJECTED);
     }
 
+    public static OrderLine buildAcceptedLine(Book book, int quantity) {
+        return OrderLine.of(
+                book.isbn(), book.title(), book.price(), quantity, OrderStatus.ACCEPTED);
+    }
+
+    public static OrderLine buildRejectedLine(String isbn, int quantity) {
+        return OrderLine.of(isbn, null, null, quantity, OrderStatus.REJECTED);
+    }
+
     public Flux<Order> consumeOrderDispatchedEvent(
             Flux<OrderDispatchedMessage> orderDispatchedMessageFlux) {
         return orderDispatchedMessageFlux
@@ -0,0 +1,11 @@
+package com.polarbookshop.orderservice.order.web;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record CartOrderRequest(
+        @NotEmpty(message = "The cart must hold at least one book.")
+                @Size(max = 50, message = "You cannot order more than 50 books at once.")
+                List<@Valid OrderRequest> lines) {}
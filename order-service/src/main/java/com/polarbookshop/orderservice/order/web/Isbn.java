@@ -0,0 +1,32 @@
+package com.polarbookshop.orderservice.order.web;
+
+import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE_USE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated value must be an ISBN-10 or ISBN-13 without separators and with a valid check
+ * digit. An ISBN-10 may end with an X. Null and empty values are considered valid and are left
+ * to {@code @NotBlank}.
+ */
+@Documented
+@Constraint(validatedBy = IsbnValidator.class)
+@Target({FIELD, METHOD, PARAMETER, ANNOTATION_TYPE, TYPE_USE})
+@Retention(RUNTIME)
+public @interface Isbn {
+
+    String message() default "The ISBN format must be valid.";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,55 @@
+package com.polarbookshop.orderservice.order.web;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Checks the digits and the check digit of an ISBN in a single pass over its characters,
+ * without a regex and without allocating.
+ */
+public class IsbnValidator implements ConstraintValidator<Isbn, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || value.isEmpty() || isValid(value);
+    }
+
+    static boolean isValid(CharSequence isbn) {
+        return switch (isbn.length()) {
+            case 10 -> isValidIsbn10(isbn);
+            case 13 -> isValidIsbn13(isbn);
+            default -> false;
+        };
+    }
+
+    // Digits are weighted 10 down to 1 and the sum must be a multiple of 11.
+    private static boolean isValidIsbn10(CharSequence isbn) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = isbn.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c == 'X' && i == 9) {
+                digit = 10;
+            } else {
+                return false;
+            }
+            sum += digit * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    // Digits are weighted alternately 1 and 3 and the sum must be a multiple of 10.
+    private static boolean isValidIsbn13(CharSequence isbn) {
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            char c = isbn.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            sum += (c - '0') * ((i & 1) == 0 ? 1 : 3);
+        }
+        return sum % 10 == 0;
+    }
+}
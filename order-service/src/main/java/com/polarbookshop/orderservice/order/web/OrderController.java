@@ -1,6 +1,9 @@
 package com.polarbookshop.orderservice.order.web;
 
+import com.polarbookshop.orderservice.order.domain.CartItem;
+import com.polarbookshop.orderservice.order.domain.CartOrder;
 import com.polarbookshop.orderservice.order.domain.Order;
+import com.polarbookshop.orderservice.order.domain.OrderLine;
 import com.polarbookshop.orderservice.order.domain.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,10 +28,26 @@ public class OrderController {
         return orderService.getOrders(jwt.getSubject());
     }
 
+    @GetMapping("{id}/lines")
+    public Flux<OrderLine> getOrderLines(
+            @PathVariable("id") Long id, @AuthenticationPrincipal Jwt jwt) {
+        LOGGER.info("Fetching the lines of order {}", id);
+        return orderService.getOrderLines(id, jwt.getSubject());
+    }
+
     @PostMapping
     public Mono<Order> submitOrder(@RequestBody @Valid OrderRequest request) {
         LOGGER.info(
                 "Order for {} copies of the book with ISBN {}", request.quantity(), request.isbn());
         return orderService.submitOrder(request.isbn(), request.quantity());
     }
+
+    @PostMapping("cart")
+    public Mono<CartOrder> submitCartOrder(@RequestBody @Valid CartOrderRequest request) {
+        LOGGER.info("Order for a cart of {} books", request.lines().size());
+        return orderService.submitCartOrder(
+                request.lines().stream()
+                        .map(line -> new CartItem(line.isbn(), line.quantity()))
+                        .toList());
+    }
 }
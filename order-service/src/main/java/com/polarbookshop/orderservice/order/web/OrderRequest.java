@@ -6,7 +6,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 public record OrderRequest(
-        @NotBlank(message = "The book ISBN must be defined.") String isbn,
+        @NotBlank(message = "The book ISBN must be defined.") @Isbn String isbn,
         @NotNull(message = "The book quantity must be defined.")
                 @Min(value = 1, message = "You must order at least 1 item.")
                 @Max(value = 5, message = "You cannot order more than 5 items.")
@@ -0,0 +1,15 @@
+-- Orders placed from a cart keep their books in order_line instead.
+alter table orders
+alter column book_isbn drop not null;
+
+create table order_line (
+id      BIGSERIAL PRIMARY KEY NOT NULL,
+order_id    bigint NOT NULL REFERENCES orders (id),
+book_isbn    varchar(255) NOT NULL,
+book_name    varchar(255),
+book_price    float8,
+quantity    int NOT NULL,
+status    varchar(255) NOT NULL
+);
+
+create index order_line_order_id_idx on order_line (order_id);
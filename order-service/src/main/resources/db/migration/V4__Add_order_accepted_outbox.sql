@@ -0,0 +1,6 @@
+-- Order accepted events waiting to be relayed to the broker, written with the order itself.
+create table order_accepted_outbox (
+id      BIGSERIAL PRIMARY KEY NOT NULL,
+order_id    bigint NOT NULL REFERENCES orders (id),
+created_date    timestamptz NOT NULL DEFAULT now()
+);
@@ -35,7 +35,9 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 import reactor.core.publisher.Mono;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"polar.outbox.await-confirms=false", "polar.outbox.poll-interval=50ms"})
 @Testcontainers
 @Import(TestChannelBinderConfiguration.class)
 class OrderServiceApplicationTests {
@@ -117,7 +119,7 @@ class OrderServiceApplicationTests {
 
     @Test
     public void whenGetOrdersWithEmployeeRoleThenReturn() throws IOException {
-        String isbn = "2134567890";
+        String isbn = "2134567899";
         Book book = new Book(isbn, "book name", "author1", 12.5);
         given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.just(book));
         Order expectedOrder =
@@ -135,7 +137,7 @@ class OrderServiceApplicationTests {
         assertThat(expectedOrder).isNotNull();
         assertThat(
                         objectMapper.readValue(
-                                outputDestination.receive().getPayload(),
+                                outputDestination.receive(5000, "order-accepted").getPayload(),
                                 OrderAcceptedMessage.class))
                 .isEqualTo(new OrderAcceptedMessage(expectedOrder.id()));
         webTestClient
@@ -157,7 +159,7 @@ class OrderServiceApplicationTests {
 
     @Test
     public void whenGetOrdersWithCustomerRoleThenReturn() throws IOException {
-        String isbn = "2134567891";
+        String isbn = "2134567805";
         Book book = new Book(isbn, "book name", "author1", 12.5);
         given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.just(book));
         Order expectedOrder =
@@ -175,7 +177,7 @@ class OrderServiceApplicationTests {
         assertThat(expectedOrder).isNotNull();
         assertThat(
                         objectMapper.readValue(
-                                outputDestination.receive().getPayload(),
+                                outputDestination.receive(5000, "order-accepted").getPayload(),
                                 OrderAcceptedMessage.class))
                 .isEqualTo(new OrderAcceptedMessage(expectedOrder.id()));
         webTestClient
@@ -197,7 +199,7 @@ class OrderServiceApplicationTests {
 
     @Test
     public void whenGetOrdersWithAnotherUserThenReturnNothing() throws IOException {
-        String isbn = "2134567891";
+        String isbn = "2134567805";
         Book book = new Book(isbn, "book name", "author1", 12.5);
         given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.just(book));
         Order expectedOrder =
@@ -215,7 +217,7 @@ class OrderServiceApplicationTests {
         assertThat(expectedOrder).isNotNull();
         assertThat(
                         objectMapper.readValue(
-                                outputDestination.receive().getPayload(),
+                                outputDestination.receive(5000, "order-accepted").getPayload(),
                                 OrderAcceptedMessage.class))
                 .isEqualTo(new OrderAcceptedMessage(expectedOrder.id()));
         webTestClient
@@ -231,7 +233,7 @@ class OrderServiceApplicationTests {
 
     @Test
     public void whenGetOrdersUnauthenticatedThenReturn401() throws IOException {
-        String isbn = "2134567892";
+        String isbn = "2134567813";
         Book book = new Book(isbn, "book name", "author1", 12.5);
         given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.just(book));
         Order expectedOrder =
@@ -249,7 +251,7 @@ class OrderServiceApplicationTests {
         assertThat(expectedOrder).isNotNull();
         assertThat(
                         objectMapper.readValue(
-                                outputDestination.receive().getPayload(),
+                                outputDestination.receive(5000, "order-accepted").getPayload(),
                                 OrderAcceptedMessage.class))
                 .isEqualTo(new OrderAcceptedMessage(expectedOrder.id()));
         webTestClient.get().uri("/orders").exchange().expectStatus().isUnauthorized();
@@ -257,7 +259,7 @@ class OrderServiceApplicationTests {
 
     @Test
     public void whenPostRequestAndBookExistsAndAuthenticatedThenOrderAccepted() throws IOException {
-        String isbn = "2134567893";
+        String isbn = "2134567821";
         Book book = new Book(isbn, "book name", "author1", 12.5);
         OrderRequest orderRequest = new OrderRequest(isbn, 2);
         given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.just(book));
@@ -283,14 +285,14 @@ class OrderServiceApplicationTests {
 
         assertThat(
                         objectMapper.readValue(
-                                outputDestination.receive().getPayload(),
+                                outputDestination.receive(5000, "order-accepted").getPayload(),
                                 OrderAcceptedMessage.class))
                 .isEqualTo(new OrderAcceptedMessage(createdOrder.id()));
     }
 
     @Test
     public void whenPostRequestAndBookExistsAndUnauthenticatedThenReturn401() {
-        String isbn = "2134567893";
+        String isbn = "2134567821";
         Book book = new Book(isbn, "book name", "author1", 12.5);
         OrderRequest orderRequest = new OrderRequest(isbn, 2);
         given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.just(book));
@@ -305,7 +307,7 @@ class OrderServiceApplicationTests {
 
     @Test
     public void whenPostRequestAndBookNotExistsAndAuthenticatedThenOrderRejected() {
-        String isbn = "2134567894";
+        String isbn = "2134567848";
         OrderRequest orderRequest = new OrderRequest(isbn, 2);
         given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.empty());
         webTestClient
@@ -330,7 +332,7 @@ class OrderServiceApplicationTests {
 
     @Test
     public void whenPostRequestAndBookNotExistsAndUnauthenticatedThenReturn401() {
-        String isbn = "2134567895";
+        String isbn = "2134567856";
         OrderRequest orderRequest = new OrderRequest(isbn, 2);
         given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.empty());
         webTestClient
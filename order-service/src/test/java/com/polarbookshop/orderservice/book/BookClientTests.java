@@ -1,30 +1,55 @@
 package com.polarbookshop.orderservice.book;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.polarbookshop.orderservice.config.BookCacheProperties;
+import com.polarbookshop.orderservice.config.ClientConfig;
+import com.polarbookshop.orderservice.config.ClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
 import org.junit.jupiter.api.*;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
 import reactor.test.StepVerifier;
 
 @TestMethodOrder(MethodOrderer.Random.class)
 public class BookClientTests {
 
     private MockWebServer mockWebServer;
+    private WebClient webClient;
     private BookClient bookClient;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     public void setup() throws IOException {
         this.mockWebServer = new MockWebServer();
         mockWebServer.start();
-        var webClient =
-                WebClient.builder().baseUrl(mockWebServer.url("/").uri().toString()).build();
-        bookClient = new BookClient(webClient);
+        this.meterRegistry = new SimpleMeterRegistry();
+        webClient =
+                new ClientConfig()
+                        .webClient(
+                                clientProperties(1),
+                                WebClient.builder(),
+                                Jackson2ObjectMapperBuilder.json());
+        bookClient =
+                new BookClient(
+                        webClient,
+                        clientProperties(1),
+                        cacheProperties(Duration.ofMinutes(1)),
+                        meterRegistry);
     }
 
     @AfterEach
@@ -33,7 +58,7 @@ public class BookClientTests {
     }
 
     @Test
-    public void whenBookExistsThenReturnBook() {
+    public void whenBookExistsThenReturnBook() throws Exception {
         String isbn = "1234567890";
         var mockResponse =
                 new MockResponse()
@@ -54,6 +79,25 @@ public class BookClientTests {
         StepVerifier.create(book)
                 .expectNextMatches(b -> isbn.equals(b.isbn()) && "book1".equals(b.title()))
                 .verifyComplete();
+        assertThat(mockWebServer.takeRequest().getHeader(BookClient.REQUEST_TIMEOUT_HEADER))
+                .isEqualTo("3000");
+    }
+
+    @Test
+    public void whenBookIsReturnedAsCborThenDecodeBook() throws Exception {
+        String isbn = "1234567806";
+        var content = new CBORMapper().writeValueAsBytes(new Book(isbn, "book1", "author1", 10.2));
+        var mockResponse =
+                new MockResponse()
+                        .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE)
+                        .setBody(new Buffer().write(content));
+        mockWebServer.enqueue(mockResponse);
+        Mono<Book> book = bookClient.getBookByIsbn(isbn);
+        StepVerifier.create(book)
+                .expectNextMatches(b -> isbn.equals(b.isbn()) && "book1".equals(b.title()))
+                .verifyComplete();
+        assertThat(mockWebServer.takeRequest().getHeader(HttpHeaders.ACCEPT))
+                .isEqualTo("application/cbor, application/json");
     }
 
     @Test
@@ -90,4 +134,153 @@ public class BookClientTests {
         Mono<Book> book = bookClient.getBookByIsbn(isbn);
         StepVerifier.create(book).expectNextCount(0).verifyComplete();
     }
+
+    @Test
+    public void whenConcurrentLookupsForSameBookThenOneCall() {
+        String isbn = "1234567807";
+        var mockResponse =
+                new MockResponse()
+                        .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .setBody(
+                                """
+                        {
+                            "isbn": %s,
+                            "title":"book1",
+                            "author":"author1",
+                            "price":10.2
+                        }
+                        """
+                                        .formatted(isbn))
+                        .setBodyDelay(200, TimeUnit.MILLISECONDS);
+        mockWebServer.enqueue(mockResponse);
+        var books =
+                Flux.range(0, 10)
+                        .flatMap(i -> bookClient.getBookByIsbn(isbn))
+                        .map(Book::isbn)
+                        .collectList();
+        StepVerifier.create(books)
+                .assertNext(isbns -> assertThat(isbns).hasSize(10).containsOnly(isbn))
+                .verifyComplete();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        assertThat(lookups("started")).isEqualTo(1.0);
+        assertThat(lookups("coalesced")).isEqualTo(9.0);
+    }
+
+    @Test
+    public void whenBookCachedThenServedWithoutCall() {
+        String isbn = "1234567808";
+        mockWebServer.enqueue(bookResponse(isbn, "book1"));
+        StepVerifier.create(bookClient.getBookByIsbn(isbn)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(bookClient.getBookByIsbn(isbn))
+                .expectNextMatches(b -> "book1".equals(b.title()))
+                .verifyComplete();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        assertThat(cacheGets("hit")).isEqualTo(1.0);
+        assertThat(lookups("coalesced")).isZero();
+    }
+
+    @Test
+    public void whenBookNotExistsThenRememberedAsUnknown() {
+        String isbn = "1234567809";
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        StepVerifier.create(bookClient.getBookByIsbn(isbn)).verifyComplete();
+        StepVerifier.create(bookClient.getBookByIsbn(isbn)).verifyComplete();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenBookStaleThenServedWhileRefreshed() throws Exception {
+        String isbn = "1234567810";
+        bookClient =
+                new BookClient(
+                        webClient,
+                        clientProperties(1),
+                        cacheProperties(Duration.ofMillis(50)),
+                        meterRegistry);
+        mockWebServer.enqueue(bookResponse(isbn, "book1"));
+        // Slow enough that a refresh can't complete before the stale book is read again.
+        mockWebServer.enqueue(bookResponse(isbn, "book2").setBodyDelay(500, TimeUnit.MILLISECONDS));
+        StepVerifier.create(bookClient.getBookByIsbn(isbn)).expectNextCount(1).verifyComplete();
+        mockWebServer.takeRequest();
+        Thread.sleep(100);
+
+        StepVerifier.create(bookClient.getBookByIsbn(isbn))
+                .expectNextMatches(b -> "book1".equals(b.title()))
+                .verifyComplete();
+        assertThat(mockWebServer.takeRequest(1, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    public void whenLookupsArriveTogetherThenFetchedInOneCall() throws Exception {
+        bookClient =
+                new BookClient(
+                        webClient,
+                        clientProperties(10),
+                        cacheProperties(Duration.ofMinutes(1)),
+                        meterRegistry);
+        mockWebServer.enqueue(
+                new MockResponse()
+                        .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .setBody(
+                                """
+                                [
+                                  {"isbn": "1234567811", "title": "book1", "author": "a"},
+                                  {"isbn": "1234567812", "title": "book2", "author": "a"}
+                                ]
+                                """));
+        var titles =
+                Flux.just("1234567811", "1234567812", "1234567813")
+                        .flatMap(isbn -> bookClient.getBookByIsbn(isbn))
+                        .map(Book::title)
+                        .collectList();
+        StepVerifier.create(titles)
+                .assertNext(books -> assertThat(books).containsExactlyInAnyOrder("book1", "book2"))
+                .verifyComplete();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        assertThat(mockWebServer.takeRequest().getRequestUrl().queryParameter("isbn"))
+                .contains("1234567811", "1234567812", "1234567813");
+        assertThat(meterRegistry.get("polar.batch.size").summary().totalAmount()).isEqualTo(3.0);
+    }
+
+    private ClientProperties clientProperties(int batchSize) {
+        return new ClientProperties(
+                mockWebServer.url("/").uri(),
+                List.of(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON),
+                false,
+                List.of(HttpProtocol.HTTP11),
+                batchSize,
+                Duration.ofMillis(50));
+    }
+
+    private static BookCacheProperties cacheProperties(Duration refreshAfterWrite) {
+        return new BookCacheProperties(
+                100, refreshAfterWrite, Duration.ofMinutes(10), Duration.ofSeconds(30));
+    }
+
+    private double lookups(String result) {
+        return meterRegistry
+                .get("polar.singleflight.requests")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry
+                .get("cache.gets")
+                .tag("cache", "books")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static MockResponse bookResponse(String isbn, String title) {
+        return new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody(
+                        """
+                        {"isbn": "%s", "title": "%s", "author": "author1", "price": 10.2}
+                        """
+                                .formatted(isbn, title));
+    }
 }
@@ -0,0 +1,167 @@
+package com.polarbookshop.orderservice.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.polarbookshop.orderservice.config.DataConfig;
+import com.polarbookshop.orderservice.order.domain.Order;
+import com.polarbookshop.orderservice.order.domain.OrderRepository;
+import com.polarbookshop.orderservice.order.domain.OrderStatus;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@DataR2dbcTest
+@Import({DataConfig.class, OrderAcceptedOutbox.class})
+@Testcontainers
+public class OrderAcceptedOutboxR2dbcTests {
+
+    @Container
+    private static PostgreSQLContainer<?> postgresql =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:14.4"));
+
+    @Autowired private OrderRepository orderRepository;
+
+    @Autowired private OrderAcceptedOutbox outbox;
+
+    @Autowired private DatabaseClient databaseClient;
+
+    @Autowired private ConnectionFactory connectionFactory;
+
+    private TransactionalOperator transactionalOperator;
+
+    @DynamicPropertySource
+    public static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", OrderAcceptedOutboxR2dbcTests::r2dbcUrl);
+        registry.add("spring.r2dbc.username", postgresql::getUsername);
+        registry.add("spring.r2dbc.password", postgresql::getPassword);
+        registry.add("spring.flyway.url", postgresql::getJdbcUrl);
+    }
+
+    private static String r2dbcUrl() {
+        return String.format(
+                "r2dbc:postgresql://%s:%s/%s",
+                postgresql.getHost(),
+                postgresql.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+                postgresql.getDatabaseName());
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionalOperator =
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+        databaseClient.sql("delete from order_accepted_outbox").then().block();
+    }
+
+    @Test
+    void whenOrderTransactionFailsThenEventRolledBackWithOrder() {
+        long ordersBefore = count("orders");
+        Order order = Order.of("1234567814", "Title", 9.90, 1, OrderStatus.ACCEPTED);
+        var failedOrder =
+                orderRepository
+                        .save(order)
+                        .flatMap(saved -> outbox.add(saved.id()))
+                        .then(Mono.error(new IllegalStateException("Order not placed")));
+
+        StepVerifier.create(transactionalOperator.transactional(failedOrder))
+                .verifyError(IllegalStateException.class);
+
+        assertThat(count("orders")).isEqualTo(ordersBefore);
+        assertThat(count("order_accepted_outbox")).isZero();
+    }
+
+    @Test
+    void whenOrderTransactionCommitsThenEventStoredWithOrder() {
+        Order order = Order.of("1234567814", "Title", 9.90, 1, OrderStatus.ACCEPTED);
+
+        StepVerifier.create(
+                        transactionalOperator.transactional(
+                                orderRepository
+                                        .save(order)
+                                        .flatMap(saved -> outbox.add(saved.id()))))
+                .verifyComplete();
+
+        assertThat(count("order_accepted_outbox")).isEqualTo(1);
+    }
+
+    @Test
+    void whenTwoRelaysLockTogetherThenEachGetsOtherEvents() {
+        addEvents(4);
+        Sinks.One<List<OutboxEvent>> firstLocked = Sinks.one();
+        Sinks.Empty<Void> secondDone = Sinks.empty();
+
+        // The first relay keeps its rows locked until the second one has read its own.
+        Mono<List<OutboxEvent>> first =
+                transactionalOperator.transactional(
+                        outbox.lockOldest(2)
+                                .collectList()
+                                .doOnNext(firstLocked::tryEmitValue)
+                                .flatMap(events -> secondDone.asMono().thenReturn(events)));
+        Mono<List<OutboxEvent>> second =
+                firstLocked
+                        .asMono()
+                        .then(
+                                transactionalOperator.transactional(
+                                        outbox.lockOldest(10).collectList()))
+                        .doFinally(signal -> secondDone.tryEmitEmpty());
+
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(
+                        locked -> {
+                            List<Long> firstIds = ids(locked.getT1());
+                            List<Long> secondIds = ids(locked.getT2());
+                            assertThat(firstIds).hasSize(2);
+                            assertThat(secondIds).hasSize(2).doesNotContainAnyElementsOf(firstIds);
+                        })
+                .verifyComplete();
+    }
+
+    @Test
+    void whenEventsLockedThenAgeComputedByDatabase() {
+        addEvents(1);
+
+        StepVerifier.create(transactionalOperator.transactional(outbox.lockOldest(1).next()))
+                .assertNext(
+                        event ->
+                                assertThat(event.ageWhenRead())
+                                        .isGreaterThanOrEqualTo(Duration.ZERO))
+                .verifyComplete();
+    }
+
+    private void addEvents(int count) {
+        Order order = Order.of("1234567814", "Title", 9.90, 1, OrderStatus.ACCEPTED);
+        Flux.range(0, count)
+                .concatMap(i -> orderRepository.save(order))
+                .concatMap(saved -> outbox.add(saved.id()))
+                .blockLast();
+    }
+
+    private long count(String table) {
+        return databaseClient
+                .sql("select count(*) as total from " + table)
+                .map(row -> row.get("total", Long.class))
+                .one()
+                .block();
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::id).toList();
+    }
+}
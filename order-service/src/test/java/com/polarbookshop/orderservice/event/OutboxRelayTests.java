@@ -0,0 +1,142 @@
+package com.polarbookshop.orderservice.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.polarbookshop.orderservice.config.OutboxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class OutboxRelayTests {
+
+    private static final Duration CONFIRM_TIMEOUT = Duration.ofMillis(200);
+
+    private final OrderAcceptedOutbox outbox = mock(OrderAcceptedOutbox.class);
+    private final StreamBridge streamBridge = mock(StreamBridge.class);
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        given(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(outbox.removeAll(anyList()))
+                .willAnswer(
+                        invocation ->
+                                Mono.just((long) invocation.<List<Long>>getArgument(0).size()));
+    }
+
+    @Test
+    void whenBrokerAcksSomeEventsThenOnlyAckedEventsRemoved() {
+        givenOutbox(event(1L), event(2L), event(3L));
+        // Event 1 is acked, event 2 nacked, and event 3 never confirmed.
+        givenConfirms(
+                Map.of(
+                        "1", new CorrelationData.Confirm(true, null),
+                        "2", new CorrelationData.Confirm(false, "nack")));
+
+        StepVerifier.create(relay(true).drain()).verifyComplete();
+
+        verify(outbox).removeAll(List.of(1L));
+        assertThat(meterRegistry.get("polar.outbox.unconfirmed").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void whenNoEventConfirmedThenNothingRemoved() {
+        givenOutbox(event(1L), event(2L));
+        givenConfirms(Map.of("1", new CorrelationData.Confirm(false, "nack")));
+
+        StepVerifier.create(relay(true).drain()).verifyComplete();
+
+        verify(outbox, never()).removeAll(anyList());
+    }
+
+    @Test
+    void whenEventConfirmedThenLagMeasuredFromItsAgeInDatabase() {
+        givenOutbox(new OutboxEvent(1L, 10L, Duration.ofSeconds(3), System.nanoTime()));
+        givenConfirms(Map.of("1", new CorrelationData.Confirm(true, null)));
+
+        StepVerifier.create(relay(true).drain()).verifyComplete();
+
+        var lag = meterRegistry.get("polar.outbox.lag").timer();
+        assertThat(lag.count()).isEqualTo(1);
+        assertThat(lag.totalTime(TimeUnit.MILLISECONDS)).isBetween(3000.0, 3000.0 + 1000.0);
+    }
+
+    @Test
+    void whenBindingRefusesEventThenKeptInOutbox() {
+        givenOutbox(event(1L));
+        given(streamBridge.send(eq("acceptOrder-out-0"), any())).willReturn(false);
+
+        StepVerifier.create(relay(false).drain()).verifyComplete();
+
+        verify(outbox, never()).removeAll(anyList());
+    }
+
+    @Test
+    void whenConfirmsNotAwaitedThenSentEventsRemoved() {
+        givenOutbox(event(1L), event(2L));
+        given(streamBridge.send(eq("acceptOrder-out-0"), any())).willReturn(true);
+
+        StepVerifier.create(relay(false).drain()).verifyComplete();
+
+        verify(outbox).removeAll(List.of(1L, 2L));
+    }
+
+    private OutboxRelay relay(boolean awaitConfirms) {
+        return new OutboxRelay(
+                outbox,
+                streamBridge,
+                transactionalOperator,
+                new OutboxProperties(
+                        true, Duration.ofMillis(500), 10, awaitConfirms, CONFIRM_TIMEOUT),
+                meterRegistry);
+    }
+
+    private void givenOutbox(OutboxEvent... events) {
+        given(outbox.lockOldest(anyInt())).willReturn(Flux.just(events));
+    }
+
+    // Completes the confirm of each event the way the binder does once the broker answers.
+    private void givenConfirms(Map<String, CorrelationData.Confirm> confirms) {
+        given(streamBridge.send(eq("acceptOrder-out-0"), any()))
+                .willAnswer(
+                        invocation -> {
+                            Message<?> message = invocation.getArgument(1);
+                            var correlation =
+                                    (CorrelationData)
+                                            message.getHeaders()
+                                                    .get(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION);
+                            CorrelationData.Confirm confirm = confirms.get(correlation.getId());
+                            if (confirm != null) {
+                                correlation.getFuture().complete(confirm);
+                            }
+                            return true;
+                        });
+    }
+
+    private static OutboxEvent event(Long id) {
+        return new OutboxEvent(id, id * 10, Duration.ZERO, System.nanoTime());
+    }
+}
@@ -1,6 +1,7 @@
 package com.polarbookshop.orderservice.order.domain;
 
 import com.polarbookshop.orderservice.config.DataConfig;
+import java.util.List;
 import java.util.Objects;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,7 +18,7 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 @DataR2dbcTest
-@Import(DataConfig.class)
+@Import({DataConfig.class, OrderLineRepository.class})
 @Testcontainers
 public class OrderRepositoryR2dbcTests {
 
@@ -27,6 +28,8 @@ public class OrderRepositoryR2dbcTests {
 
     @Autowired private OrderRepository orderRepository;
 
+    @Autowired private OrderLineRepository orderLineRepository;
+
     @DynamicPropertySource
     public static void postgresqlProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.r2dbc.url", OrderRepositoryR2dbcTests::r2dbcUrl);
@@ -80,4 +83,49 @@ public class OrderRepositoryR2dbcTests {
                                         && "kourosh".equals(order.lastModifiedBy()))
                 .verifyComplete();
     }
+
+    @Test
+    @WithMockUser(username = "bjorn")
+    public void whenCartOrderLinesInsertedThenFoundByOrderOfItsCreator() {
+        Order order = Order.of(null, null, null, 3, OrderStatus.REJECTED);
+        List<OrderLine> lines =
+                List.of(
+                        OrderService.buildRejectedLine("1234567814", 1),
+                        OrderService.buildRejectedLine("1234567822", 2));
+        var foundLines =
+                orderRepository
+                        .save(order)
+                        .flatMap(
+                                saved ->
+                                        orderLineRepository
+                                                .insertAll(saved.id(), lines)
+                                                .then(
+                                                        orderRepository.findByIdAndCreatedBy(
+                                                                saved.id(), "bjorn")))
+                        .flatMapMany(saved -> orderLineRepository.findAllByOrderId(saved.id()));
+        StepVerifier.create(foundLines)
+                .expectNextMatches(line -> "1234567814".equals(line.bookIsbn()))
+                .expectNextMatches(
+                        line ->
+                                "1234567822".equals(line.bookIsbn())
+                                        && OrderStatus.REJECTED.equals(line.status()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenCartOrderLinesInsertedThenIdsReturnedInOrder() {
+        Order order = Order.of(null, null, null, 3, OrderStatus.REJECTED);
+        List<OrderLine> lines =
+                List.of(
+                        OrderService.buildRejectedLine("1234567894", 1),
+                        OrderService.buildRejectedLine("1234567895", 2));
+        var savedLines =
+                orderRepository
+                        .save(order)
+                        .flatMapMany(saved -> orderLineRepository.insertAll(saved.id(), lines));
+        StepVerifier.create(savedLines)
+                .expectNextMatches(line -> line.id() != null && line.quantity() == 1)
+                .expectNextMatches(line -> line.id() != null && line.quantity() == 2)
+                .verifyComplete();
+    }
 }
@@ -0,0 +1,190 @@
+package com.polarbookshop.orderservice.order.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.polarbookshop.orderservice.book.Book;
+import com.polarbookshop.orderservice.book.BookClient;
+import com.polarbookshop.orderservice.event.OrderAcceptedOutbox;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class OrderServiceTests {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderLineRepository orderLineRepository = mock(OrderLineRepository.class);
+    private final BookClient bookClient = mock(BookClient.class);
+    private final OrderAcceptedOutbox orderAcceptedOutbox = mock(OrderAcceptedOutbox.class);
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+
+    // Records which calls ran while the transaction was open.
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+    private final List<String> calls = new ArrayList<>();
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        given(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .willAnswer(
+                        invocation -> {
+                            Mono<?> work = invocation.getArgument(0);
+                            return Mono.defer(
+                                            () -> {
+                                                inTransaction.set(true);
+                                                return work;
+                                            })
+                                    .doFinally(signal -> inTransaction.set(false));
+                        });
+        given(orderRepository.save(any(Order.class)))
+                .willAnswer(
+                        invocation -> {
+                            Order order = invocation.getArgument(0);
+                            return Mono.fromCallable(
+                                    () -> {
+                                        record("save order");
+                                        return withId(order, 1L);
+                                    });
+                        });
+        given(orderLineRepository.insertAll(anyLong(), anyList()))
+                .willAnswer(
+                        invocation -> {
+                            List<OrderLine> lines = invocation.getArgument(1);
+                            return Flux.defer(
+                                    () -> {
+                                        record("insert lines");
+                                        return Flux.fromIterable(lines);
+                                    });
+                        });
+        given(orderAcceptedOutbox.add(anyLong()))
+                .willReturn(Mono.fromRunnable(() -> record("add event")));
+        orderService =
+                new OrderService(
+                        orderRepository,
+                        orderLineRepository,
+                        bookClient,
+                        orderAcceptedOutbox,
+                        transactionalOperator);
+    }
+
+    @Test
+    void whenEveryBookAvailableThenCartOrderAccepted() {
+        givenBook("1234567814");
+        givenBook("1234567822");
+
+        StepVerifier.create(
+                        orderService.submitCartOrder(
+                                List.of(
+                                        new CartItem("1234567814", 1),
+                                        new CartItem("1234567822", 2))))
+                .assertNext(
+                        cartOrder -> {
+                            assertThat(cartOrder.order().status()).isEqualTo(OrderStatus.ACCEPTED);
+                            assertThat(cartOrder.order().quantity()).isEqualTo(3);
+                            assertThat(cartOrder.lines())
+                                    .extracting(OrderLine::status)
+                                    .containsOnly(OrderStatus.ACCEPTED);
+                        })
+                .verifyComplete();
+        verify(orderAcceptedOutbox).add(1L);
+    }
+
+    @Test
+    void whenOneBookUnavailableThenWholeCartRejectedWithItsLine() {
+        givenBook("1234567814");
+        given(bookClient.getBookByIsbn("1234567822")).willReturn(Mono.empty());
+
+        StepVerifier.create(
+                        orderService.submitCartOrder(
+                                List.of(
+                                        new CartItem("1234567814", 1),
+                                        new CartItem("1234567822", 2))))
+                .assertNext(
+                        cartOrder -> {
+                            assertThat(cartOrder.order().status()).isEqualTo(OrderStatus.REJECTED);
+                            assertThat(cartOrder.lines())
+                                    .extracting(OrderLine::bookIsbn, OrderLine::status)
+                                    .containsExactly(
+                                            tuple("1234567814", OrderStatus.ACCEPTED),
+                                            tuple("1234567822", OrderStatus.REJECTED));
+                            assertThat(cartOrder.lines().get(1).bookName()).isNull();
+                        })
+                .verifyComplete();
+        verify(orderAcceptedOutbox, never()).add(anyLong());
+    }
+
+    @Test
+    void whenCartSubmittedThenBooksLookedUpBeforeTransactionAndStoredWithinIt() {
+        given(bookClient.getBookByIsbn("1234567814"))
+                .willReturn(
+                        Mono.fromCallable(
+                                () -> {
+                                    record("look up book");
+                                    return book("1234567814");
+                                }));
+
+        StepVerifier.create(orderService.submitCartOrder(List.of(new CartItem("1234567814", 1))))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(calls)
+                .containsExactly(
+                        "look up book outside transaction",
+                        "save order in transaction",
+                        "add event in transaction",
+                        "insert lines in transaction");
+    }
+
+    @Test
+    void whenLinesCannotBeStoredThenErrorReachesTransaction() {
+        givenBook("1234567814");
+        given(orderLineRepository.insertAll(anyLong(), anyList()))
+                .willReturn(Flux.error(new DataIntegrityViolationException("order_line")));
+
+        StepVerifier.create(orderService.submitCartOrder(List.of(new CartItem("1234567814", 1))))
+                .verifyError(DataIntegrityViolationException.class);
+        verify(transactionalOperator).transactional(ArgumentMatchers.<Mono<Object>>any());
+    }
+
+    private void record(String call) {
+        calls.add(call + (inTransaction.get() ? " in transaction" : " outside transaction"));
+    }
+
+    private void givenBook(String isbn) {
+        given(bookClient.getBookByIsbn(isbn)).willReturn(Mono.just(book(isbn)));
+    }
+
+    private static Book book(String isbn) {
+        return new Book(isbn, "Title", "Author", 9.90);
+    }
+
+    private static Order withId(Order order, Long id) {
+        return new Order(
+                id,
+                order.bookIsbn(),
+                order.bookName(),
+                order.bookPrice(),
+                order.quantity(),
+                order.status(),
+                order.createdDate(),
+                order.lastModifiedDate(),
+                order.createdBy(),
+                order.lastModifiedBy(),
+                order.version());
+    }
+}
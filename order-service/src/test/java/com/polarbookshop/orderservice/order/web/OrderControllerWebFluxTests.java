@@ -4,9 +4,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 
 import com.polarbookshop.orderservice.config.SecurityConfig;
+import com.polarbookshop.orderservice.order.domain.CartItem;
+import com.polarbookshop.orderservice.order.domain.CartOrder;
 import com.polarbookshop.orderservice.order.domain.Order;
+import com.polarbookshop.orderservice.order.domain.OrderLine;
 import com.polarbookshop.orderservice.order.domain.OrderService;
 import com.polarbookshop.orderservice.order.domain.OrderStatus;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
@@ -16,6 +20,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @WebFluxTest(OrderController.class)
@@ -30,7 +35,7 @@ public class OrderControllerWebFluxTests {
 
     @Test
     public void whenBookNotAvailableAndAuthenticatedThenRejectOrder() {
-        OrderRequest orderRequest = new OrderRequest("1234567890", 2);
+        OrderRequest orderRequest = new OrderRequest("1234567806", 2);
         Order actualOrder =
                 OrderService.buildRejectOrder(orderRequest.isbn(), orderRequest.quantity());
         given(orderService.submitOrder(orderRequest.isbn(), orderRequest.quantity()))
@@ -55,7 +60,7 @@ public class OrderControllerWebFluxTests {
 
     @Test
     public void whenBookNotAvailableAndUnauthenticatedThenReturn401() {
-        OrderRequest orderRequest = new OrderRequest("1234567890", 2);
+        OrderRequest orderRequest = new OrderRequest("1234567806", 2);
         Order actualOrder =
                 OrderService.buildRejectOrder(orderRequest.isbn(), orderRequest.quantity());
         given(orderService.submitOrder(orderRequest.isbn(), orderRequest.quantity()))
@@ -68,4 +73,73 @@ public class OrderControllerWebFluxTests {
                 .expectStatus()
                 .isUnauthorized();
     }
+
+    @Test
+    public void whenCartSubmittedAndAuthenticatedThenOneOrderWithLines() {
+        var firstLine = new OrderRequest("1234567814", 1);
+        var secondLine = new OrderRequest("1234567822", 2);
+        var cartRequest = new CartOrderRequest(List.of(firstLine, secondLine));
+        var lines =
+                List.of(
+                        OrderLine.of("1234567814", "Title", 9.90, 1, OrderStatus.ACCEPTED),
+                        OrderLine.of("1234567822", "Title", 9.90, 2, OrderStatus.ACCEPTED));
+        var cartOrder = new CartOrder(Order.of(null, null, null, 3, OrderStatus.ACCEPTED), lines);
+        var items =
+                List.of(
+                        new CartItem(firstLine.isbn(), firstLine.quantity()),
+                        new CartItem(secondLine.isbn(), secondLine.quantity()));
+        given(orderService.submitCartOrder(items)).willReturn(Mono.just(cartOrder));
+        webClient
+                .mutateWith(
+                        SecurityMockServerConfigurers.mockJwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_employee")))
+                .post()
+                .uri("/orders/cart")
+                .bodyValue(cartRequest)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody(CartOrder.class)
+                .value(
+                        order -> {
+                            assertThat(order.order().status()).isEqualTo(OrderStatus.ACCEPTED);
+                            assertThat(order.lines()).hasSize(2);
+                        });
+    }
+
+    @Test
+    public void whenOrderLinesRequestedThenReturnLinesOfOwnOrder() {
+        var lines =
+                List.of(
+                        new OrderLine(
+                                1L, 10L, "1234567814", "Title", 9.90, 1, OrderStatus.ACCEPTED),
+                        new OrderLine(2L, 10L, "1234567822", null, null, 2, OrderStatus.REJECTED));
+        given(orderService.getOrderLines(10L, "bjorn")).willReturn(Flux.fromIterable(lines));
+        webClient
+                .mutateWith(
+                        SecurityMockServerConfigurers.mockJwt()
+                                .jwt(jwt -> jwt.subject("bjorn"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_employee")))
+                .get()
+                .uri("/orders/10/lines")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(OrderLine.class)
+                .isEqualTo(lines);
+    }
+
+    @Test
+    public void whenCartEmptyThenReturn400() {
+        webClient
+                .mutateWith(
+                        SecurityMockServerConfigurers.mockJwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_employee")))
+                .post()
+                .uri("/orders/cart")
+                .bodyValue(new CartOrderRequest(List.of()))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
 }
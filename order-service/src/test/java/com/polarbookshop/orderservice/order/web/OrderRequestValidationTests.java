@@ -22,7 +22,7 @@ public class OrderRequestValidationTests {
 
     @Test
     public void whenAllFieldsCorrectThenValidationSucceeds() {
-        OrderRequest request = new OrderRequest("1234567890", 3);
+        OrderRequest request = new OrderRequest("1234567806", 3);
         Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
         assertThat(violations).isEmpty();
     }
@@ -45,9 +45,18 @@ public class OrderRequestValidationTests {
                 .isEqualTo("The book ISBN must be defined.");
     }
 
+    @Test
+    public void whenIsbnChecksumIsIncorrectThenValidationFails() {
+        OrderRequest request = new OrderRequest("1234567890", 3);
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
+        assertThat(violations.size()).isEqualTo(1);
+        assertThat(violations.iterator().next().getMessage())
+                .isEqualTo("The ISBN format must be valid.");
+    }
+
     @Test
     public void whenQuantityFieldIsNullThenValidationFails() {
-        OrderRequest request = new OrderRequest("1234567890", null);
+        OrderRequest request = new OrderRequest("1234567806", null);
         Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
         assertThat(violations.size()).isEqualTo(1);
         assertThat(violations.iterator().next().getMessage())
@@ -56,7 +65,7 @@ public class OrderRequestValidationTests {
 
     @Test
     public void whenQuantityFieldIsLessThanMinThenValidationFails() {
-        OrderRequest request = new OrderRequest("1234567890", 0);
+        OrderRequest request = new OrderRequest("1234567806", 0);
         Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
         assertThat(violations.size()).isEqualTo(1);
         assertThat(violations.iterator().next().getMessage())
@@ -65,7 +74,7 @@ public class OrderRequestValidationTests {
 
     @Test
     public void whenQuantityFieldIsGreaterThanMaxThenValidationFails() {
-        OrderRequest request = new OrderRequest("1234567890", 6);
+        OrderRequest request = new OrderRequest("1234567806", 6);
         Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
         assertThat(violations.size()).isEqualTo(1);
         assertThat(violations.iterator().next().getMessage())
@@ -0,0 +1,40 @@
+package com.polarbookshop.logging;
+
+import java.time.Instant;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Turns off log sampling for one trace: {@code POST /actuator/fulllogging/{traceId}} logs every
+ * event of that trace for {@code polar.logging.full-logging-ttl}.
+ */
+@Endpoint(id = "fulllogging")
+public class FullLoggingEndpoint {
+
+    private final LoggingProperties loggingProperties;
+
+    public FullLoggingEndpoint(LoggingProperties loggingProperties) {
+        this.loggingProperties = loggingProperties;
+    }
+
+    @ReadOperation
+    public Map<String, Instant> traces() {
+        return SamplingFilter.fullLoggingTraces();
+    }
+
+    @WriteOperation
+    public Instant enable(@Selector String traceId) {
+        var until = Instant.now().plus(loggingProperties.fullLoggingTtl());
+        SamplingFilter.enableFullLogging(traceId, until);
+        return until;
+    }
+
+    @DeleteOperation
+    public void disable(@Selector String traceId) {
+        SamplingFilter.disableFullLogging(traceId);
+    }
+}
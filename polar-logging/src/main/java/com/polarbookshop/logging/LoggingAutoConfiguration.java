@@ -0,0 +1,53 @@
+package com.polarbookshop.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Exposes the drops of {@link MeteredAsyncAppender} and {@link SamplingFilter} as metrics and
+ * registers the {@link FullLoggingEndpoint}. The appender and the filters themselves are set up
+ * in each service's {@code logback-spring.xml}.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(LoggingProperties.class)
+public class LoggingAutoConfiguration {
+
+    @Bean
+    public FullLoggingEndpoint fullLoggingEndpoint(LoggingProperties loggingProperties) {
+        return new FullLoggingEndpoint(loggingProperties);
+    }
+
+    @Bean
+    public MeterBinder droppedLogEventsMetrics() {
+        return registry -> {
+            FunctionCounter.builder(
+                            "polar.logging.events.dropped",
+                            MeteredAsyncAppender.class,
+                            appender -> MeteredAsyncAppender.discardedCount())
+                    .description("Log events dropped by the asynchronous appender")
+                    .tag("reason", "discarded")
+                    .register(registry);
+            FunctionCounter.builder(
+                            "polar.logging.events.dropped",
+                            MeteredAsyncAppender.class,
+                            appender -> MeteredAsyncAppender.overflowedCount())
+                    .description("Log events dropped by the asynchronous appender")
+                    .tag("reason", "overflow")
+                    .register(registry);
+            SamplingFilter.sampledOutCounts()
+                    .forEach(
+                            (loggerName, count) ->
+                                    FunctionCounter.builder(
+                                                    "polar.logging.events.sampled",
+                                                    count,
+                                                    LongAdder::sum)
+                                            .description("Log events left out by sampling")
+                                            .tag("logger", loggerName)
+                                            .register(registry));
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.polarbookshop.logging;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * The asynchronous appender and the sampling rates are configured in {@code logback-spring.xml},
+ * which reads them from the {@code polar.logging.async} and {@code polar.logging.sampling} keys.
+ */
+@ConfigurationProperties(prefix = "polar.logging")
+public record LoggingProperties(
+        /** How long a trace enabled through the fulllogging endpoint bypasses sampling. */
+        @DefaultValue("10m") Duration fullLoggingTtl) {}
@@ -0,0 +1,44 @@
+package com.polarbookshop.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that keeps count of the events it drops, either because the queue is
+ * past the discarding threshold or, with {@code neverBlock}, because it is full. The overflow
+ * count is read from the remaining capacity just before the offer, so it is approximate under
+ * contention.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DISCARDED = new LongAdder();
+    private static final LongAdder OVERFLOWED = new LongAdder();
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        if (super.isDiscardable(event)) {
+            DISCARDED.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && getRemainingCapacity() == 0 && !super.isDiscardable(event)) {
+            OVERFLOWED.increment();
+        }
+        super.append(event);
+    }
+
+    /** Events of level INFO or below dropped because the queue was nearly full. */
+    public static long discardedCount() {
+        return DISCARDED.sum();
+    }
+
+    /** Events of any level dropped because the queue was full. */
+    public static long overflowedCount() {
+        return OVERFLOWED.sum();
+    }
+}
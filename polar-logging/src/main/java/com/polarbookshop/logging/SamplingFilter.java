@@ -0,0 +1,123 @@
+package com.polarbookshop.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback filter that lets through one in {@code rate} events of a logger, optionally only those
+ * whose message pattern starts with {@code messagePrefix}. Events that belong to a trace enabled
+ * through {@link #enableFullLogging} are always accepted, so a single request can be followed end
+ * to end while the rest of the traffic stays sampled.
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    private static final String TRACE_ID_KEY = "trace_id";
+
+    private static final Map<String, LongAdder> SAMPLED_OUT = new ConcurrentHashMap<>();
+
+    // Copy-on-write, so that the check on every event is a volatile read and, almost always, an
+    // empty map.
+    private static volatile Map<String, Instant> fullLoggingTraces = Map.of();
+
+    private String loggerName;
+    private String messagePrefix = "";
+    private int rate = 1;
+    private LongAdder sampledOut;
+
+    @Override
+    public void start() {
+        if (loggerName == null) {
+            addError("No loggerName set for the sampling filter");
+            return;
+        }
+        if (rate < 1) {
+            addError("The sampling rate for " + loggerName + " must be at least 1");
+            return;
+        }
+        sampledOut = SAMPLED_OUT.computeIfAbsent(loggerName, name -> new LongAdder());
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (!isStarted()
+                || rate == 1
+                || !loggerName.equals(event.getLoggerName())
+                || !event.getMessage().startsWith(messagePrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (isFullLoggingTrace(event)) {
+            return FilterReply.ACCEPT;
+        }
+        if (ThreadLocalRandom.current().nextInt(rate) == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setMessagePrefix(String messagePrefix) {
+        this.messagePrefix = messagePrefix;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    /** Number of events left out by sampling so far, by logger name. */
+    public static Map<String, LongAdder> sampledOutCounts() {
+        return SAMPLED_OUT;
+    }
+
+    /** Logs every event of the given trace until the given instant, regardless of sampling. */
+    public static synchronized void enableFullLogging(String traceId, Instant until) {
+        var traces = activeTraces();
+        traces.put(traceId, until);
+        fullLoggingTraces = Map.copyOf(traces);
+    }
+
+    public static synchronized void disableFullLogging(String traceId) {
+        var traces = activeTraces();
+        traces.remove(traceId);
+        fullLoggingTraces = Map.copyOf(traces);
+    }
+
+    public static Map<String, Instant> fullLoggingTraces() {
+        return fullLoggingTraces;
+    }
+
+    private static Map<String, Instant> activeTraces() {
+        var now = Instant.now();
+        var traces = new HashMap<String, Instant>();
+        fullLoggingTraces.forEach(
+                (traceId, until) -> {
+                    if (until.isAfter(now)) {
+                        traces.put(traceId, until);
+                    }
+                });
+        return traces;
+    }
+
+    private static boolean isFullLoggingTrace(ILoggingEvent event) {
+        var traces = fullLoggingTraces;
+        if (traces.isEmpty()) {
+            return false;
+        }
+        // The OpenTelemetry agent adds the trace to the MDC map of the event rather than to the
+        // MDC itself, which is why this can't be a turbo filter.
+        var traceId = event.getMDCPropertyMap().get(TRACE_ID_KEY);
+        var until = traceId != null ? traces.get(traceId) : null;
+        return until != null && until.isAfter(Instant.now());
+    }
+}
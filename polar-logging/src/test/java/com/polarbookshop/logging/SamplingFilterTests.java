@@ -0,0 +1,93 @@
+package com.polarbookshop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SamplingFilterTests {
+
+    private static final String LOGGER_NAME = "com.polarbookshop.catalogservice.web.BookController";
+    private static final String LOOKUP_MESSAGE = "Fetching the book with ISBN {} from the catalog";
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private SamplingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SamplingFilter();
+        filter.setContext(loggerContext);
+        filter.setLoggerName(LOGGER_NAME);
+        filter.setMessagePrefix("Fetching the book with ISBN");
+        filter.setRate(1000);
+        filter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SamplingFilter.disableFullLogging(TRACE_ID);
+    }
+
+    @Test
+    void whenEventMatchesRuleThenMostAreDenied() {
+        long accepted =
+                IntStream.range(0, 1000)
+                        .mapToObj(i -> filter.decide(bookLookup(null)))
+                        .filter(reply -> reply != FilterReply.DENY)
+                        .count();
+        assertThat(accepted).isLessThan(50);
+        assertThat(SamplingFilter.sampledOutCounts().get(LOGGER_NAME).sum())
+                .isGreaterThanOrEqualTo(950);
+    }
+
+    @Test
+    void whenEventDoesNotMatchRuleThenNeutral() {
+        assertThat(filter.decide(event(LOGGER_NAME, "Deleting book with ISBN {}", null)))
+                .isEqualTo(FilterReply.NEUTRAL);
+        assertThat(filter.decide(event("other", LOOKUP_MESSAGE, null)))
+                .isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void whenTraceHasFullLoggingThenAccepted() {
+        SamplingFilter.enableFullLogging(TRACE_ID, Instant.now().plusSeconds(60));
+        assertThat(filter.decide(bookLookup(TRACE_ID))).isEqualTo(FilterReply.ACCEPT);
+    }
+
+    @Test
+    void whenFullLoggingExpiredThenSampled() {
+        SamplingFilter.enableFullLogging(TRACE_ID, Instant.now().minusSeconds(1));
+        long accepted =
+                IntStream.range(0, 100)
+                        .mapToObj(i -> filter.decide(bookLookup(TRACE_ID)))
+                        .filter(reply -> reply == FilterReply.ACCEPT)
+                        .count();
+        assertThat(accepted).isZero();
+    }
+
+    private LoggingEvent bookLookup(String traceId) {
+        return event(LOGGER_NAME, LOOKUP_MESSAGE, traceId);
+    }
+
+    private LoggingEvent event(String loggerName, String message, String traceId) {
+        var event =
+                new LoggingEvent(
+                        getClass().getName(),
+                        loggerContext.getLogger(loggerName),
+                        Level.INFO,
+                        message,
+                        null,
+                        new Object[] {"1234567806"});
+        event.setMDCPropertyMap(traceId != null ? Map.of("trace_id", traceId) : Map.of());
+        return event;
+    }
+}